@@ -0,0 +1,29 @@
+package com.example.demo.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Point d'entrée des benchmarks
+ * Accepte les mêmes options que JMH ; sans option -rf, les résultats sont écrits en CSV
+ * (une ligne par benchmark et par jeu de paramètres) pour être comparés d'un commit à l'autre
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.addAll(List.of("-rf", "csv"));
+            if (!options.contains("-rff")) {
+                options.addAll(List.of("-rff", "jmh-result.csv"));
+            }
+        }
+        Main.main(options.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Test de charge HTTP en boucle fermée contre une instance démarrée de l'application
+ * Chaque client virtuel enchaîne les requêtes sans pause ; le rapport donne le débit,
+ * les codes de réponse et les percentiles de latence.
+ *
+ * java -cp benchmarks/target/benchmarks.jar com.example.demo.benchmark.HttpLoadTest \
+ *     --url=http://localhost:8080 --scenario=users --clients=200 --duration=30 \
+ *     --username=alice --password=secret123
+ *
+ * Scénarios : "users" (GET /api/users avec un token obtenu au démarrage) et "login" (POST /api/auth/login)
+ */
+public final class HttpLoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+            "url", "http://localhost:8080",
+            "scenario", "users",
+            "clients", "100",
+            "duration", "30",
+            "warmup", "5",
+            "username", "alice",
+            "password", "secret123"));
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+        }
+
+        String baseUrl = options.get("url");
+        int clients = Integer.parseInt(options.get("clients"));
+        String loginBody = "{\"username\":\"" + options.get("username") + "\",\"password\":\"" + options.get("password") + "\"}";
+
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        HttpRequest loginRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(loginBody))
+            .build();
+
+        HttpRequest request = switch (options.get("scenario")) {
+            case "login" -> loginRequest;
+            case "users" -> {
+                String response = httpClient.send(loginRequest, HttpResponse.BodyHandlers.ofString()).body();
+                Matcher matcher = TOKEN.matcher(response);
+                if (!matcher.find()) {
+                    throw new IllegalStateException("Connexion impossible: " + response);
+                }
+                yield HttpRequest.newBuilder(URI.create(baseUrl + "/api/users"))
+                    .header("Authorization", "Bearer " + matcher.group(1))
+                    .GET()
+                    .build();
+            }
+            default -> throw new IllegalArgumentException("Scénario inconnu: " + options.get("scenario"));
+        };
+
+        System.out.printf("Préchauffage %s s...%n", options.get("warmup"));
+        run(httpClient, request, clients, Duration.ofSeconds(Long.parseLong(options.get("warmup"))));
+
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+        Result result = run(httpClient, request, clients, duration);
+        result.print(options.get("scenario"), clients, duration);
+    }
+
+    private static Result run(HttpClient httpClient, HttpRequest request, int clients, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Result>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    Result result = new Result();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        result.record(status, System.nanoTime() - start);
+                    }
+                    return result;
+                }));
+            }
+        }
+        Result total = new Result();
+        for (Future<Result> future : futures) {
+            total.merge(future.get());
+        }
+        return total;
+    }
+
+    /**
+     * Statistiques d'un client, fusionnées à la fin du test
+     */
+    private static final class Result {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+
+        void record(int status, long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            statuses.merge(status, 1L, Long::sum);
+        }
+
+        void merge(Result other) {
+            latencies = Arrays.copyOf(latencies, count + other.count);
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            other.statuses.forEach((status, n) -> statuses.merge(status, n, Long::sum));
+        }
+
+        void print(String scenario, int clients, Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("scenario=%s clients=%d duration=%ds requests=%d throughput=%.1f req/s%n",
+                scenario, clients, duration.toSeconds(), count, count / (double) duration.toSeconds());
+            System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), percentile(sorted, 1.0));
+            System.out.println("status codes (-1 = erreur réseau): " + statuses);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.security.JwtAuthorizationFilter;
+import com.example.demo.model.User;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.JwtUtils;
+import com.example.demo.security.UserDetailsImpl;
+import com.example.demo.service.UserDetailsServiceImpl;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Passage complet d'une requête authentifiée dans JwtAuthorizationFilter
+ * Le chargement de l'utilisateur est simulé : le coût de la base de données n'est pas inclus
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthorizationFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean claimsOnly;
+
+    @Param({"0", "10000"})
+    public int verifiedCacheSize;
+
+    private JwtAuthorizationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setup() {
+        User user = SecurityFixtures.user(2, 8);
+        AuthorityRegistry authorityRegistry = SecurityFixtures.authorityRegistry(user);
+        JwtUtils jwtUtils = SecurityFixtures.jwtUtils("HS512", verifiedCacheSize, authorityRegistry);
+        UserDetailsImpl userDetails = UserDetailsImpl.build(user, authorityRegistry);
+
+        UserDetailsServiceImpl userDetailsService = SecurityFixtures.stub(UserDetailsServiceImpl.class);
+        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(userDetails);
+
+        filter = new JwtAuthorizationFilter(jwtUtils, userDetailsService);
+        ReflectionTestUtils.setField(filter, "claimsOnlyAuthorization", claimsOnly);
+        authorizationHeader = "Bearer " + jwtUtils.generateJwtToken(SecurityFixtures.authentication(userDetails));
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
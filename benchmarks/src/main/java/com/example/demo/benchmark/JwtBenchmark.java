@@ -0,0 +1,67 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.User;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.JwtUtils;
+import com.example.demo.security.UserDetailsImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération et validation des tokens JWT
+ * validateCached mesure une présentation répétée du même token (cas nominal d'un client authentifié),
+ * validateFresh un token jamais vu (cache manqué, vérification complète de la signature)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({"HS512", "RS256", "ES256"})
+    public String algorithm;
+
+    @Param({"0", "10000"})
+    public int verifiedCacheSize;
+
+    private JwtUtils jwtUtils;
+    private Authentication authentication;
+    private String token;
+    private String[] freshTokens;
+    private int freshIndex;
+
+    @Setup
+    public void setup() {
+        User user = SecurityFixtures.user(2, 8);
+        AuthorityRegistry authorityRegistry = SecurityFixtures.authorityRegistry(user);
+        jwtUtils = SecurityFixtures.jwtUtils(algorithm, verifiedCacheSize, authorityRegistry);
+        authentication = SecurityFixtures.authentication(UserDetailsImpl.build(user, authorityRegistry));
+        token = jwtUtils.generateJwtToken(authentication);
+
+        freshTokens = new String[1024];
+        for (int i = 0; i < freshTokens.length; i++) {
+            freshTokens[i] = jwtUtils.generateJwtToken(authentication);
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public boolean validateFresh() {
+        // Avec le cache activé, les tokens finissent par y entrer : seul le premier passage est "frais"
+        String fresh = freshTokens[freshIndex++ & (freshTokens.length - 1)];
+        return jwtUtils.validateJwtToken(fresh);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.JwtAuthenticationFilter;
+import com.example.demo.security.RefreshTokenManager;
+import com.example.demo.security.UserDetailsImpl;
+import com.example.demo.service.UserDetailsServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Connexions par seconde sur POST /api/auth/login (JwtAuthenticationFilter)
+ * Le chargement de l'utilisateur et l'enregistrement du refresh token sont simulés
+ */
+@SuppressWarnings("deprecation") // NoOpPasswordEncoder
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 8, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final byte[] LOGIN_BODY =
+        "{\"username\":\"benchmark\",\"password\":\"benchmark-password\"}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * "noop" isole le coût du pipeline ; "bcrypt-N" mesure une connexion réaliste de coût N
+     */
+    @Param({"noop", "bcrypt-4", "bcrypt-10"})
+    public String passwordEncoder;
+
+    private JwtAuthenticationFilter filter;
+
+    @Setup
+    public void setup() {
+        PasswordEncoder encoder = passwordEncoder.equals("noop")
+            ? NoOpPasswordEncoder.getInstance()
+            : new BCryptPasswordEncoder(Integer.parseInt(passwordEncoder.substring("bcrypt-".length())));
+        User user = SecurityFixtures.user(2, 8);
+        user.setPassword(encoder.encode("benchmark-password"));
+        AuthorityRegistry authorityRegistry = SecurityFixtures.authorityRegistry(user);
+
+        UserDetailsServiceImpl userDetailsService = SecurityFixtures.stub(UserDetailsServiceImpl.class);
+        when(userDetailsService.loadUserByUsername(anyString()))
+            .thenAnswer(invocation -> UserDetailsImpl.build(user, authorityRegistry));
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encoder);
+        provider.setUserDetailsService(userDetailsService);
+
+        RefreshTokenRepository refreshTokenRepository = SecurityFixtures.stub(RefreshTokenRepository.class);
+        when(refreshTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        RefreshTokenManager refreshTokenManager = new RefreshTokenManager(refreshTokenRepository);
+        ReflectionTestUtils.setField(refreshTokenManager, "refreshTokenExpirationMs", 1_209_600_000L);
+
+        filter = new JwtAuthenticationFilter(new ProviderManager(provider),
+            SecurityFixtures.jwtUtils("HS512", 10_000, authorityRegistry), refreshTokenManager, new ObjectMapper());
+        filter.setFilterProcessesUrl("/api/auth/login");
+    }
+
+    @Benchmark
+    public int login() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        request.setContentType("application/json");
+        request.setContent(LOGIN_BODY);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getContentAsByteArray().length;
+    }
+}
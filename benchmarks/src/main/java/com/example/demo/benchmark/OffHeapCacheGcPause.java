@@ -0,0 +1,117 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.OffHeapSpringCache;
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.UserSecurityRecord;
+import com.example.demo.security.UserSecurityRecordCodec;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compare les pauses du ramasse-miettes selon que le cache "userByUsername" est sur le tas (Caffeine)
+ * ou hors tas (OffHeapSpringCache), sous une charge qui lit le cache et alloue des objets de durée de vie moyenne
+ * Chaque mode se lance dans sa propre JVM, avec le même -Xmx :
+ *
+ * java -Xmx1g -cp benchmarks/target/benchmarks.jar com.example.demo.benchmark.OffHeapCacheGcPause heap|offheap [utilisateurs] [secondes]
+ */
+public final class OffHeapCacheGcPause {
+
+    private static final AtomicLong pauses = new AtomicLong();
+    private static final AtomicLong pauseMillis = new AtomicLong();
+    private static final AtomicLong maxPauseMillis = new AtomicLong();
+
+    private OffHeapCacheGcPause() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "offheap";
+        int userCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        User template = user(0);
+        AuthorityRegistry authorityRegistry = SecurityFixtures.authorityRegistry(template);
+        Cache cache = "heap".equals(mode)
+            ? new CaffeineCache("userByUsername", Caffeine.newBuilder().maximumSize(userCount).build(), false)
+            : new OffHeapSpringCache("userByUsername", 512L * 1024 * 1024, userCount, Duration.ofHours(1).toNanos(),
+                () -> new UserSecurityRecordCodec(authorityRegistry));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < userCount; i++) {
+            cache.put("user" + i, UserSecurityRecord.of(user(i), authorityRegistry));
+        }
+        System.out.printf("%s : %,d fiches chargées en %d ms%n", mode, userCount, (System.nanoTime() - start) / 1_000_000);
+
+        System.gc();
+        listenToPauses();
+
+        // Objets de durée de vie moyenne : une partie survit aux collectes jeunes et est promue
+        Object[] retained = new Object[100_000];
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long reads = 0;
+        long checksum = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 1_000; i++) {
+                Cache.ValueWrapper cached = cache.get("user" + random.nextInt(userCount));
+                if (cached != null) {
+                    checksum += ((UserSecurityRecord) cached.get()).id();
+                }
+                retained[random.nextInt(retained.length)] = new byte[random.nextInt(64, 512)];
+                reads++;
+            }
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%s : %,d lectures (somme de contrôle %d), tas occupé %,d Mo%n", mode, reads, checksum,
+            (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+        System.out.printf("%s : %d pause(s), %d ms au total, %d ms au maximum%n", mode,
+            pauses.get(), pauseMillis.get(), maxPauseMillis.get());
+    }
+
+    /**
+     * Comptabilise les pauses (les phases concurrentes du collecteur sont ignorées)
+     */
+    private static void listenToPauses() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                if (info.getGcName().contains("Concurrent") || "No GC".equals(info.getGcCause())) {
+                    return;
+                }
+                long duration = info.getGcInfo().getDuration();
+                pauses.incrementAndGet();
+                pauseMillis.addAndGet(duration);
+                maxPauseMillis.accumulateAndGet(duration, Math::max);
+            }, null, null);
+        }
+    }
+
+    private static User user(int index) {
+        Role role = new Role(1L, "USER", null, Set.of(new Permission(1L, "USER_READ", null)));
+        User user = new User();
+        user.setId((long) index);
+        user.setUsername("user" + index);
+        user.setEmail("user" + index + "@example.com");
+        user.setPassword("$2a$10$ub1a6WYTZ/zMR12C.UV5KOyxEwCNyRgIYKxLg5QGCKnDCpjnWAQdG");
+        user.setRoles(Set.of(role));
+        return user;
+    }
+}
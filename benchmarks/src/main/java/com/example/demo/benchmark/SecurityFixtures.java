@@ -0,0 +1,162 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.aop.TransactionalCacheInvalidator;
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.model.SigningKey;
+import com.example.demo.model.User;
+import com.example.demo.repository.PermissionRepository;
+import com.example.demo.repository.RevokedTokenRepository;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.SigningKeyRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.AuthoritySet;
+import com.example.demo.security.AuthoritySetAuthenticationToken;
+import com.example.demo.security.JwtKeyRing;
+import com.example.demo.security.JwtUtils;
+import com.example.demo.security.TokenRevocationRegistry;
+import com.example.demo.security.UserDetailsImpl;
+import com.example.demo.security.UserTokenVersionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.mockito.Mockito.when;
+
+/**
+ * Construction des composants de sécurité hors contexte Spring
+ * Les repositories sont remplacés par des doublures en mémoire : seuls les calculs sont mesurés
+ */
+final class SecurityFixtures {
+
+    private SecurityFixtures() {
+    }
+
+    /**
+     * Crée une doublure qui n'enregistre pas ses invocations
+     * (un mock classique conserve chaque appel et ralentit au fil des itérations)
+     * @param type Le type à simuler
+     * @return La doublure
+     */
+    static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    /**
+     * Crée un JwtUtils initialisé avec un trousseau de clés en mémoire
+     * @param algorithm L'algorithme de signature (HS512, RS256, ES256)
+     * @param verifiedCacheSize Taille du cache de tokens vérifiés (0 pour le désactiver)
+     * @param authorityRegistry Le registre des autorités
+     * @return Le JwtUtils prêt à l'emploi
+     */
+    static JwtUtils jwtUtils(String algorithm, int verifiedCacheSize, AuthorityRegistry authorityRegistry) {
+        List<SigningKey> keys = new CopyOnWriteArrayList<>();
+        SigningKeyRepository signingKeyRepository = stub(SigningKeyRepository.class);
+        when(signingKeyRepository.findByExpiresAtAfter(any())).thenAnswer(invocation -> List.copyOf(keys));
+        when(signingKeyRepository.save(any())).thenAnswer(invocation -> {
+            SigningKey key = invocation.getArgument(0);
+            keys.add(key);
+            return key;
+        });
+
+        JwtKeyRing keyRing = new JwtKeyRing(signingKeyRepository);
+        ReflectionTestUtils.setField(keyRing, "jwtAlgorithm", algorithm);
+        ReflectionTestUtils.setField(keyRing, "jwtKeyRotationMs", 604_800_000L);
+        ReflectionTestUtils.setField(keyRing, "jwtExpirationMs", 900_000L);
+        ReflectionTestUtils.setField(keyRing, "jwtKeyRefreshMs", 60_000L);
+        keyRing.init();
+
+        RevokedTokenRepository revokedTokenRepository = stub(RevokedTokenRepository.class);
+        TokenRevocationRegistry revocationRegistry =
+            new TokenRevocationRegistry(revokedTokenRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocationRegistry, "bloomCapacity", 100_000L);
+        revocationRegistry.init();
+
+        // Aucun utilisateur n'a vu ses tokens invalidés ; les publications entre nœuds sont ignorées
+        UserRepository userRepository = stub(UserRepository.class);
+        when(userRepository.findTokenVersion(any())).thenReturn(0L);
+        UserTokenVersionRegistry tokenVersionRegistry =
+            new UserTokenVersionRegistry(userRepository, stub(TransactionalCacheInvalidator.class));
+        ReflectionTestUtils.setField(tokenVersionRegistry, "cacheSize", 100_000);
+        ReflectionTestUtils.setField(tokenVersionRegistry, "cacheTtlMs", 600_000L);
+        tokenVersionRegistry.init();
+
+        JwtUtils jwtUtils = new JwtUtils(tokenVersionRegistry, keyRing, revocationRegistry, authorityRegistry);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 900_000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtVerifiedCacheSize", verifiedCacheSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    /**
+     * Crée un registre des autorités contenant les rôles et permissions d'un utilisateur
+     * @param user L'utilisateur
+     * @return Le registre initialisé
+     */
+    static AuthorityRegistry authorityRegistry(User user) {
+        List<Role> roles = List.copyOf(user.getRoles());
+        List<Permission> permissions = roles.stream()
+            .flatMap(role -> role.getPermissions().stream())
+            .distinct()
+            .toList();
+
+        PermissionRepository permissionRepository = stub(PermissionRepository.class);
+        when(permissionRepository.findAll()).thenReturn(permissions);
+        RoleRepository roleRepository = stub(RoleRepository.class);
+        when(roleRepository.findAllWithPermissions()).thenReturn(roles);
+
+        AuthorityRegistry authorityRegistry = new AuthorityRegistry(permissionRepository, roleRepository);
+        authorityRegistry.init();
+        return authorityRegistry;
+    }
+
+    /**
+     * Crée un utilisateur avec un nombre donné de rôles et de permissions par rôle
+     * Les rôles partagent la moitié de leurs permissions, comme dans un modèle réel
+     * @param roleCount Nombre de rôles
+     * @param permissionsPerRole Nombre de permissions par rôle
+     * @return L'utilisateur
+     */
+    static User user(int roleCount, int permissionsPerRole) {
+        Set<Role> roles = new HashSet<>();
+        long permissionId = 0;
+        for (int r = 0; r < roleCount; r++) {
+            Set<Permission> permissions = new HashSet<>();
+            for (int p = 0; p < permissionsPerRole; p++) {
+                long id = p < permissionsPerRole / 2 ? p : ++permissionId + permissionsPerRole;
+                permissions.add(new Permission(id, "PERMISSION_" + id, null));
+            }
+            roles.add(new Role((long) r, "ROLE" + r, null, permissions));
+        }
+
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setPassword("$2a$10$ub1a6WYTZ/zMR12C.UV5KOyxEwCNyRgIYKxLg5QGCKnDCpjnWAQdG");
+        user.setRoles(roles);
+        return user;
+    }
+
+    /**
+     * @param userDetails Les détails de l'utilisateur
+     * @return Une authentification réussie pour cet utilisateur
+     */
+    static Authentication authentication(UserDetailsImpl userDetails) {
+        // Même construction que JwtAuthorizationFilter
+        if (userDetails.getAuthorities() instanceof AuthoritySet authorities) {
+            return new AuthoritySetAuthenticationToken(userDetails, authorities);
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+}
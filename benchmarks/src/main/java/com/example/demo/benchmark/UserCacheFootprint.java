@@ -0,0 +1,83 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.UserSecurityRecord;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compare l'empreinte mémoire du cache d'authentification : entités User (chacune avec ses propres
+ * instances de rôles et permissions, comme après un chargement JPA) contre fiches UserSecurityRecord
+ *
+ * java -cp benchmarks/target/benchmarks.jar com.example.demo.benchmark.UserCacheFootprint [utilisateurs] [rôles] [permissions par rôle]
+ */
+public final class UserCacheFootprint {
+
+    private UserCacheFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int roleCount = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int permissionsPerRole = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        List<User> entities = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            entities.add(loadedUser(i, roleCount, permissionsPerRole));
+        }
+        AuthorityRegistry authorityRegistry = SecurityFixtures.authorityRegistry(entities.get(0));
+
+        List<UserSecurityRecord> records = new ArrayList<>(userCount);
+        long estimated = 0;
+        for (User user : entities) {
+            // Copie des chaînes : les fiches ne doivent pas partager celles des entités mesurées
+            User copy = new User();
+            copy.setId(user.getId());
+            copy.setUsername(new String(user.getUsername()));
+            copy.setEmail(new String(user.getEmail()));
+            copy.setPassword(new String(user.getPassword()));
+            copy.setRoles(user.getRoles());
+            UserSecurityRecord securityRecord = UserSecurityRecord.of(copy, authorityRegistry);
+            records.add(securityRecord);
+            estimated += securityRecord.estimatedSizeBytes();
+        }
+
+        long entityBytes = GraphLayout.parseInstance(entities).totalSize();
+        long recordBytes = GraphLayout.parseInstance(records).totalSize();
+        System.out.printf("%d utilisateurs, %d rôle(s) x %d permission(s)%n", userCount, roleCount, permissionsPerRole);
+        System.out.printf("Entités User  : %,d octets (%,d par utilisateur)%n", entityBytes, entityBytes / userCount);
+        System.out.printf("Fiches        : %,d octets (%,d par utilisateur)%n", recordBytes, recordBytes / userCount);
+        System.out.printf("Estimation    : %,d octets par fiche (users.security.cache.entry.bytes)%n", estimated / userCount);
+        System.out.printf("Rapport       : %.1fx%n", (double) entityBytes / recordBytes);
+    }
+
+    /**
+     * Utilisateur tel que chargé par JPA : rôles et permissions sont des instances propres à l'entité
+     */
+    private static User loadedUser(int index, int roleCount, int permissionsPerRole) {
+        Set<Role> roles = new HashSet<>();
+        for (int r = 0; r < roleCount; r++) {
+            Set<Permission> permissions = new HashSet<>();
+            for (int p = 0; p < permissionsPerRole; p++) {
+                long id = (long) r * permissionsPerRole + p;
+                permissions.add(new Permission(id, new String("PERMISSION_" + id), new String("Permission " + id)));
+            }
+            roles.add(new Role((long) r, new String("ROLE" + r), new String("Rôle " + r), permissions));
+        }
+
+        User user = new User();
+        user.setId((long) index);
+        user.setUsername("user" + index);
+        user.setEmail("user" + index + "@example.com");
+        user.setPassword("$2a$10$ub1a6WYTZ/zMR12C.UV5KOyxEwCNyRgIYKxLg5QGCKnDCpjnWAQdG" + index % 10);
+        user.setRoles(roles);
+        return user;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.User;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.AuthoritySetExpressionHandler;
+import com.example.demo.security.UserDetailsImpl;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Construction de UserDetailsImpl (rôles + permissions aplatis) selon la taille du modèle d'autorisation,
+ * et coût d'un test d'autorité tel que l'effectue une expression @PreAuthorize : construction de l'authentification
+ * comme JwtAuthorizationFilter, du contexte d'évaluation par le gestionnaire d'expressions, puis hasAuthority
+ * Les variantes "Names" utilisent un HashSet de SimpleGrantedAuthority et le gestionnaire standard,
+ * les autres un AuthoritySet et AuthoritySetExpressionHandler
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDetailsBuildBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int roles;
+
+    @Param({"4", "16", "64"})
+    public int permissionsPerRole;
+
+    private User user;
+    private AuthorityRegistry authorityRegistry;
+    private UserDetailsImpl withNames;
+    private UserDetailsImpl withMasks;
+    private MethodInvocation invocation;
+    private final DefaultMethodSecurityExpressionHandler namesHandler = new DefaultMethodSecurityExpressionHandler();
+    private final AuthoritySetExpressionHandler masksHandler = new AuthoritySetExpressionHandler();
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        user = SecurityFixtures.user(roles, permissionsPerRole);
+        authorityRegistry = SecurityFixtures.authorityRegistry(user);
+        withNames = UserDetailsImpl.build(user);
+        withMasks = UserDetailsImpl.build(user, authorityRegistry);
+        invocation = SecurityFixtures.stub(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        when(invocation.getThis()).thenReturn(this);
+    }
+
+    @Benchmark
+    public UserDetailsImpl buildNames() {
+        return UserDetailsImpl.build(user);
+    }
+
+    @Benchmark
+    public UserDetailsImpl build() {
+        return UserDetailsImpl.build(user, authorityRegistry);
+    }
+
+    @Benchmark
+    public boolean hasAuthorityNames() {
+        // SecurityExpressionRoot.hasAuthority : copie des noms puis recherche
+        return hasAuthority(namesHandler, withNames);
+    }
+
+    @Benchmark
+    public boolean hasAuthority() {
+        return hasAuthority(masksHandler, withMasks);
+    }
+
+    private boolean hasAuthority(DefaultMethodSecurityExpressionHandler handler, UserDetailsImpl userDetails) {
+        Authentication authentication = SecurityFixtures.authentication(userDetails);
+        MethodSecurityExpressionOperations root = (MethodSecurityExpressionOperations) handler
+            .createEvaluationContext(() -> authentication, invocation)
+            .getRootObject().getValue();
+        return root.hasAuthority("PERMISSION_1");
+    }
+}
@@ -22,21 +22,28 @@ import java.util.Map;
 public class SecurityInfoEndpoint {
 
     private final UserRepository userRepository;
+    private final SecurityStatistics securityStatistics;
 
     /**
      * Récupère les informations générales de sécurité
+     * Les compteurs proviennent du dernier instantané de SecurityStatistics, sans requête
      * @return Les statistiques de sécurité de l'application
      */
     @ReadOperation
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public Map<String, Object> securityInfo() {
         Map<String, Object> details = new HashMap<>();
+        SecurityStatistics.Snapshot statistics = securityStatistics.current();
 
         details.put("timestamp", Instant.now().toString());
-        details.put("totalUsers", userRepository.count());
-        details.put("activeUsers", userRepository.findAll().stream()
-            .filter(user -> user.isEnabled() && user.isAccountNonLocked())
-            .count());
+        details.put("statisticsComputedAt", statistics.computedAt().toString());
+        details.put("totalUsers", statistics.totalUsers());
+        details.put("activeUsers", statistics.activeUsers());
+        details.put("enabledUsers", statistics.enabledUsers());
+        details.put("lockedUsers", statistics.lockedUsers());
+        details.put("expiredUsers", statistics.expiredUsers());
+        details.put("credentialsExpiredUsers", statistics.credentialsExpiredUsers());
+        details.put("usersByRole", statistics.usersByRole());
 
         details.put("systemInfo", getSystemInfo());
 
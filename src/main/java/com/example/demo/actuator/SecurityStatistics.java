@@ -0,0 +1,89 @@
+package com.example.demo.actuator;
+
+import com.example.demo.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistiques des comptes utilisateurs servies par l'endpoint securityInfo
+ * Elles sont calculées par des requêtes d'agrégation, en tâche de fond toutes les app.securityStatsRefreshMs,
+ * et publiées sous forme d'instantané immuable : une consultation de l'endpoint ne lit jamais la table users.
+ */
+@Component
+@Slf4j
+public class SecurityStatistics {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Snapshot snapshot;
+
+    public SecurityStatistics(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    /**
+     * @return Le dernier instantané calculé
+     */
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Recalcule les compteurs ; en cas d'échec, l'instantané précédent reste servi
+     */
+    @Scheduled(fixedDelayString = "${app.securityStatsRefreshMs:60000}", initialDelayString = "${app.securityStatsRefreshMs:60000}")
+    public void refresh() {
+        Instant started = Instant.now();
+        try {
+            snapshot = readOnlyTransaction.execute(status -> {
+                UserRepository.AccountStateCounts counts = userRepository.countByAccountState();
+                Map<String, Long> usersByRole = new TreeMap<>();
+                userRepository.countByRole().forEach(role -> usersByRole.put(role.getRoleName(), role.getUsers()));
+                return new Snapshot(Instant.now(), counts.getTotal(), counts.getEnabled(), counts.getActive(),
+                    counts.getLocked(), counts.getExpired(), counts.getCredentialsExpired(),
+                    Collections.unmodifiableMap(usersByRole));
+            });
+            log.debug("Statistiques de sécurité calculées en {} ms", Duration.between(started, Instant.now()).toMillis());
+        } catch (RuntimeException e) {
+            if (snapshot == null) {
+                throw e;
+            }
+            log.warn("Échec du calcul des statistiques de sécurité, instantané du {} conservé",
+                snapshot.computedAt(), e);
+        }
+    }
+
+    /**
+     * Compteurs des comptes utilisateurs à un instant donné
+     * @param computedAt Date du calcul
+     * @param totalUsers Nombre total d'utilisateurs
+     * @param enabledUsers Comptes activés
+     * @param activeUsers Comptes activés et non verrouillés
+     * @param lockedUsers Comptes verrouillés
+     * @param expiredUsers Comptes expirés
+     * @param credentialsExpiredUsers Comptes dont les identifiants sont expirés
+     * @param usersByRole Nombre d'utilisateurs par rôle, triés par nom de rôle
+     */
+    public record Snapshot(Instant computedAt, long totalUsers, long enabledUsers, long activeUsers,
+                           long lockedUsers, long expiredUsers, long credentialsExpiredUsers,
+                           Map<String, Long> usersByRole) {
+    }
+}
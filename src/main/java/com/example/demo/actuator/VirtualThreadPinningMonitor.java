@@ -0,0 +1,94 @@
+package com.example.demo.actuator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Détection des threads virtuels épinglés à leur thread porteur (bloc synchronized, appel natif...)
+ * Un thread épinglé bloque son porteur pendant toute l'attente et annule le bénéfice des threads virtuels.
+ * Les événements JFR jdk.VirtualThreadPinned sont comptés par emplacement (première frame de l'application,
+ * sinon "external") et la pile est journalisée une fois par emplacement.
+ * Actif uniquement lorsque spring.threads.virtual.enabled=true.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String APPLICATION_PACKAGE = "com.example.demo.";
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Durée minimale d'épinglage signalée
+     */
+    @Value("${app.virtualThreadPinningThresholdMs:20}")
+    private long thresholdMs;
+
+    private final Set<String> reportedLocations = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recordingStream;
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT)
+            .withThreshold(Duration.ofMillis(thresholdMs))
+            .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        log.info("Surveillance des threads virtuels épinglés active (seuil {} ms)", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        String location = frames.stream()
+            .filter(frame -> frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+            .findFirst()
+            .map(VirtualThreadPinningMonitor::describe)
+            .orElse("external");
+
+        Timer.builder("jvm.threads.virtual.pinned")
+            .description("Durée pendant laquelle un thread virtuel a bloqué son thread porteur")
+            .tag("location", location)
+            .register(meterRegistry)
+            .record(event.getDuration());
+
+        if (reportedLocations.add(location)) {
+            log.warn("Thread virtuel épinglé {} ms ({}):\n\t{}", event.getDuration().toMillis(), location,
+                frames.stream().limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::describe)
+                    .collect(Collectors.joining("\n\t")));
+        }
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
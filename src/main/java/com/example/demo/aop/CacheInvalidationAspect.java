@@ -1,18 +1,30 @@
 package com.example.demo.aop;
 
+import com.example.demo.model.User;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.UserExistenceFilter;
+import com.example.demo.security.UserSecurityRecord;
+import com.example.demo.security.UserTokenVersionRegistry;
+import com.example.demo.service.UserDetailsServiceImpl;
+import com.example.demo.service.UserPageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Aspect pour gérer l'invalidation automatique du cache
  * Nettoie les caches appropriés lorsque les données sont modifiées
+ * Les écritures unitaires sur les utilisateurs ne touchent que les clés concernées ;
+ * les opérations sont appliquées après le commit par {@link TransactionalCacheInvalidator}
  */
 @Aspect
 @Component
@@ -20,93 +32,210 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class CacheInvalidationAspect {
 
-    private final CacheManager cacheManager;
+    private final TransactionalCacheInvalidator cacheInvalidator;
+    private final UserExistenceFilter userExistenceFilter;
+    private final AuthorityRegistry authorityRegistry;
+    private final UserTokenVersionRegistry tokenVersionRegistry;
 
     /**
-     * Pointcut qui correspond aux méthodes qui créent des utilisateurs
+     * Pointcut qui correspond à l'enregistrement d'un utilisateur
      */
     @Pointcut("execution(* com.example.demo.repository.UserRepository.save(..)) || " +
-        "execution(* com.example.demo.controller.AuthController.registerUser(..))")
-    public void userModificationPointcut() {
+        "execution(* com.example.demo.repository.UserRepository.saveAndFlush(..))")
+    public void userSavePointcut() {
         // Méthode vide pour le pointcut
     }
 
     /**
-     * Pointcut qui correspond aux méthodes qui suppriment des utilisateurs
+     * Pointcut qui correspond à la suppression d'une entité utilisateur
      */
-    @Pointcut("execution(* com.example.demo.repository.UserRepository.delete*(..)) || " +
-        "execution(* com.example.demo.controller.UserController.deleteUser(..))")
+    @Pointcut("execution(* com.example.demo.repository.UserRepository.delete(..))")
     public void userDeletionPointcut() {
         // Méthode vide pour le pointcut
     }
 
     /**
-     * Pointcut qui correspond aux méthodes qui modifient des rôles
+     * Pointcut qui correspond à l'enregistrement d'une collection d'utilisateurs (saveAll, saveAllAndFlush)
+     */
+    @Pointcut("execution(* com.example.demo.repository.UserRepository.saveAll*(..))")
+    public void userSaveAllPointcut() {
+        // Méthode vide pour le pointcut
+    }
+
+    /**
+     * Pointcut qui correspond aux suppressions en masse ou sans entité (deleteById, deleteAll...)
      */
-    @Pointcut("execution(* com.example.demo.repository.RoleRepository.save(..)) || " +
-        "execution(* com.example.demo.repository.RoleRepository.delete*(..))")
+    @Pointcut("execution(* com.example.demo.repository.UserRepository.deleteAll*(..)) || " +
+        "execution(* com.example.demo.repository.UserRepository.deleteById(..))")
+    public void userBulkModificationPointcut() {
+        // Méthode vide pour le pointcut
+    }
+
+    /**
+     * Pointcut qui correspond aux méthodes qui modifient des rôles ou des permissions
+     */
+    @Pointcut("execution(* com.example.demo.repository.RoleRepository.save*(..)) || " +
+        "execution(* com.example.demo.repository.RoleRepository.delete*(..)) || " +
+        "execution(* com.example.demo.repository.PermissionRepository.save*(..)) || " +
+        "execution(* com.example.demo.repository.PermissionRepository.delete*(..))")
     public void roleModificationPointcut() {
         // Méthode vide pour le pointcut
     }
 
     /**
-     * Invalide les caches liés aux utilisateurs après modification
+     * Répercute l'enregistrement d'un utilisateur dans les caches, clé par clé
+     * Les anciennes clés (nom d'utilisateur et email avant modification) sont retirées,
+     * les nouvelles et l'ID reçoivent l'entité enregistrée ; les pages de la liste sont invalidées.
+     * Un changement d'état du compte (activation, verrouillage, expiration) rend obsolètes les tokens déjà émis.
      * @param joinPoint Point d'entrée dans le code où l'aspect est appliqué
-     * @param result Le résultat de la méthode
+     * @param user L'utilisateur à enregistrer
+     * @return L'utilisateur enregistré
      */
-    @AfterReturning(pointcut = "userModificationPointcut()", returning = "result")
-    public void invalidateUserCaches(JoinPoint joinPoint, Object result) {
-        log.debug("Invalidation des caches d'utilisateurs après opération: {}",
-            joinPoint.getSignature().getName());
+    @Around("userSavePointcut() && args(user)")
+    public Object writeThroughUserCaches(ProceedingJoinPoint joinPoint, User user) throws Throwable {
+        // Capturées avant l'enregistrement, qui met à jour les clés persistées
+        boolean created = user.getId() == null;
+        String previousUsername = user.persistedUsername();
+        String previousEmail = user.persistedEmail();
+        // État inconnu pour une entité détachée construite hors de la base : considéré comme modifié
+        boolean accountStatusChanged = !created && (previousUsername == null || user.accountStatusChanged());
+        // Ajout avant le commit : un nom tout juste enregistré ne doit jamais être jugé inexistant
+        userExistenceFilter.add(user.getUsername(), user.getEmail());
+
+        Object result = joinPoint.proceed();
+        if (!(result instanceof User saved)) {
+            return result;
+        }
+
+        if (accountStatusChanged) {
+            tokenVersionRegistry.invalidateTokens(saved.getId());
+        }
+        if (!created && (previousUsername == null || previousEmail == null)) {
+            // Entité détachée construite hors de la base : les anciennes clés sont inconnues
+            log.debug("Clés précédentes inconnues pour l'utilisateur {}, invalidation complète", saved.getId());
+            clearUserCaches();
+            return result;
+        }
+
+        replaceKey(UserDetailsServiceImpl.USER_SECURITY_CACHE, previousUsername, saved.getUsername(),
+            UserSecurityRecord.of(saved, authorityRegistry));
+        // Le cache par email n'est relu par personne sur le chemin critique : simple éviction
+        evictKeys("userByEmail", previousEmail, saved.getEmail());
+        cacheInvalidator.put("userById", saved.getId(), saved);
+        cacheInvalidator.clear(UserPageService.USER_PAGES_CACHE);
+        return result;
+    }
+
+    /**
+     * Répercute l'enregistrement d'une collection d'utilisateurs dans les caches
+     * Si tous sont nouveaux (import en masse), seules leurs clés sont retirées : les entrées négatives
+     * éventuellement en cache, et, sur les autres nœuds, l'ajout des noms et emails aux filtres d'existence.
+     * Sinon les anciennes clés sont inconnues et les caches d'utilisateurs sont entièrement invalidés.
+     * @param joinPoint Point d'entrée dans le code où l'aspect est appliqué
+     * @param users Les utilisateurs à enregistrer
+     * @return Les utilisateurs enregistrés
+     */
+    @Around("userSaveAllPointcut() && args(users)")
+    public Object writeThroughSavedUsers(ProceedingJoinPoint joinPoint, Iterable<?> users) throws Throwable {
+        List<User> created = new ArrayList<>();
+        boolean onlyCreations = true;
+        for (Object entity : users) {
+            if (entity instanceof User user && user.getId() == null) {
+                created.add(user);
+            } else {
+                onlyCreations = false;
+            }
+        }
+        if (!onlyCreations) {
+            Object result = joinPoint.proceed();
+            log.debug("Invalidation des caches d'utilisateurs après opération: {}", joinPoint.getSignature().getName());
+            clearUserCaches();
+            return result;
+        }
 
-        invalidateCache("users");
-        invalidateCache("userByUsername");
-        invalidateCache("userByEmail");
+        // Ajout avant le commit : un nom tout juste enregistré ne doit jamais être jugé inexistant
+        created.forEach(user -> userExistenceFilter.add(user.getUsername(), user.getEmail()));
+        Object result = joinPoint.proceed();
+        created.forEach(user -> {
+            cacheInvalidator.evict("userByUsername", user.getUsername());
+            cacheInvalidator.evict("userByEmail", user.getEmail());
+        });
+        if (!created.isEmpty()) {
+            cacheInvalidator.clear(UserPageService.USER_PAGES_CACHE);
+        }
+        return result;
     }
 
     /**
-     * Invalide les caches liés aux utilisateurs après suppression
+     * Retire des caches les clés d'un utilisateur supprimé
      * @param joinPoint Point d'entrée dans le code où l'aspect est appliqué
+     * @param user L'utilisateur supprimé
      */
-    @AfterReturning(pointcut = "userDeletionPointcut()")
-    public void invalidateUserCachesAfterDeletion(JoinPoint joinPoint) {
-        log.debug("Invalidation des caches d'utilisateurs après suppression");
+    @AfterReturning(pointcut = "userDeletionPointcut() && args(user)")
+    public void evictDeletedUser(JoinPoint joinPoint, User user) {
+        log.debug("Invalidation des clés de l'utilisateur {} après suppression", user.getId());
 
-        invalidateCache("users");
-        invalidateCache("userByUsername");
-        invalidateCache("userByEmail");
+        cacheInvalidator.evict("userByUsername", user.getUsername());
+        cacheInvalidator.evict("userByEmail", user.getEmail());
+        if (user.persistedUsername() != null) {
+            cacheInvalidator.evict("userByUsername", user.persistedUsername());
+            cacheInvalidator.evict("userByEmail", user.persistedEmail());
+        }
+        if (user.getId() != null) {
+            cacheInvalidator.evict("userById", user.getId());
+        }
+        cacheInvalidator.clear(UserPageService.USER_PAGES_CACHE);
     }
 
     /**
-     * Invalide les caches liés aux rôles après modification
+     * Invalide entièrement les caches d'utilisateurs après une suppression en masse
+     * @param joinPoint Point d'entrée dans le code où l'aspect est appliqué
+     */
+    @AfterReturning(pointcut = "userBulkModificationPointcut()")
+    public void invalidateUserCaches(JoinPoint joinPoint) {
+        log.debug("Invalidation des caches d'utilisateurs après opération: {}",
+            joinPoint.getSignature().getName());
+
+        clearUserCaches();
+    }
+
+    /**
+     * Recharge le registre des autorités après modification d'un rôle ou d'une permission
+     * Le canal "authorities" n'est pas un cache : il propage le rechargement aux autres nœuds
      * @param joinPoint Point d'entrée dans le code où l'aspect est appliqué
      */
     @AfterReturning(pointcut = "roleModificationPointcut()")
     public void invalidateRoleCaches(JoinPoint joinPoint) {
-        log.debug("Invalidation des caches de rôles après opération: {}",
+        log.debug("Rechargement des autorités après opération: {}",
             joinPoint.getSignature().getName());
 
-        invalidateCache("roles");
+        authorityRegistry.reloadAfterCommit();
+        cacheInvalidator.clear(AuthorityRegistry.INVALIDATION_CHANNEL);
         // Comme les rôles sont liés aux utilisateurs, on invalide aussi leurs caches
-        invalidateCache("users");
-        invalidateCache("userByUsername");
+        clearUserCaches();
+    }
+
+    private void clearUserCaches() {
+        cacheInvalidator.clear(UserPageService.USER_PAGES_CACHE);
+        cacheInvalidator.clear("userByUsername");
+        cacheInvalidator.clear("userByEmail");
+        cacheInvalidator.clear("userById");
     }
 
     /**
-     * Méthode utilitaire pour invalider un cache spécifique
-     * @param cacheName Le nom du cache à invalider
+     * Retire l'ancienne clé si elle a changé et écrit la nouvelle valeur
      */
-    private void invalidateCache(String cacheName) {
-        try {
-            Cache cache = cacheManager.getCache(cacheName);
-            if (cache != null) {
-                cache.clear();
-                log.debug("Cache '{}' invalidé avec succès", cacheName);
-            } else {
-                log.debug("Cache '{}' non trouvé, aucune invalidation nécessaire", cacheName);
-            }
-        } catch (Exception e) {
-            log.warn("Erreur lors de l'invalidation du cache '{}': {}", cacheName, e.getMessage());
+    private void replaceKey(String cacheName, String previousKey, String key, Object value) {
+        if (previousKey != null && !previousKey.equals(key)) {
+            cacheInvalidator.evict(cacheName, previousKey);
+        }
+        cacheInvalidator.put(cacheName, key, value);
+    }
+
+    private void evictKeys(String cacheName, String previousKey, String key) {
+        if (previousKey != null && !previousKey.equals(key)) {
+            cacheInvalidator.evict(cacheName, previousKey);
         }
+        cacheInvalidator.evict(cacheName, key);
     }
 }
@@ -0,0 +1,228 @@
+package com.example.demo.aop;
+
+import com.example.demo.model.CacheInvalidationLogEntry;
+import com.example.demo.repository.CacheInvalidationLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Canal d'invalidation des caches locaux entre les nœuds, adossé à la table cache_invalidation_log
+ * Chaque nœud publie ses invalidations dans la transaction qui modifie les données, puis relit
+ * périodiquement le journal par identifiant croissant pour retirer de ses caches les clés modifiées ailleurs.
+ * Les identifiants pouvant être validés dans le désordre, un identifiant manquant bloque la position de lecture
+ * jusqu'à ce qu'il apparaisse ou que GAP_TIMEOUT soit écoulé. Un identifiant sauté reste ensuite recherché
+ * à chaque lecture, jusqu'à la durée de conservation du journal : une transaction longue validée après coup
+ * est encore appliquée, une transaction annulée finit par être oubliée.
+ * Le compteur "cache.invalidation.log.gaps" (tag result=skipped|recovered|expired|dropped) suit ces identifiants.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationLog {
+
+    /**
+     * Délai au-delà duquel un identifiant manquant est considéré comme abandonné (transaction annulée)
+     */
+    private static final Duration GAP_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Nombre maximal d'identifiants sautés recherchés ; au-delà, les caches locaux sont entièrement vidés
+     */
+    private static final int MAX_SKIPPED_IDS = 1000;
+
+    private final CacheInvalidationLogRepository logRepository;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<RemoteCacheInvalidationListener> listeners;
+
+    /**
+     * Durée de conservation des entrées du journal
+     */
+    @Value("${app.cache.invalidationRetentionMs:3600000}")
+    private long retentionMs;
+
+    /**
+     * Identifiant de ce nœud, pour ignorer ses propres invalidations
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ReentrantLock pollLock = new ReentrantLock();
+
+    /**
+     * Position de lecture : toutes les entrées d'identifiant inférieur ou égal ont été traitées
+     */
+    private long position;
+
+    /**
+     * Entrées déjà traitées au-delà de la position, avec la date à laquelle elles ont été lues
+     */
+    private final NavigableMap<Long, Instant> seenAhead = new TreeMap<>();
+
+    /**
+     * Identifiants sautés par la position de lecture et pas encore apparus, avec la date à laquelle ils l'ont été
+     */
+    private final NavigableMap<Long, Instant> skipped = new TreeMap<>();
+
+    /**
+     * Démarre la lecture à la fin du journal : les caches locaux sont vides au démarrage
+     */
+    @PostConstruct
+    public void init() {
+        position = logRepository.findMaxId();
+        log.info("Journal des invalidations de cache lu à partir de la position {} (nœud {})", position, nodeId);
+    }
+
+    /**
+     * Enregistre des invalidations dans le journal partagé
+     * Appelé dans la transaction qui modifie les données, pour que les autres nœuds ne les voient qu'après le commit
+     * @param entries Les invalidations (nom du cache et clé, null pour vider le cache)
+     */
+    public void publish(List<CacheInvalidationLogEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        entries.forEach(entry -> {
+            entry.setOriginNode(nodeId);
+            entry.setCreatedAt(now);
+        });
+        logRepository.saveAll(entries);
+    }
+
+    /**
+     * Applique aux caches locaux les invalidations publiées par les autres nœuds
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidationPollMs:1000}")
+    public void poll() {
+        pollLock.lock();
+        try {
+            Instant now = Instant.now();
+            for (CacheInvalidationLogEntry entry : logRepository.findTop1000ByIdGreaterThanOrderByIdAsc(position)) {
+                if (seenAhead.putIfAbsent(entry.getId(), now) == null && !nodeId.equals(entry.getOriginNode())) {
+                    apply(entry);
+                }
+            }
+            advancePosition(now);
+            recoverSkipped(now);
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    /**
+     * Purge les entrées plus anciennes que la durée de conservation
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidationRetentionMs:3600000}")
+    public void purge() {
+        long purged = logRepository.deleteByCreatedAtBefore(Instant.now().minusMillis(retentionMs));
+        if (purged > 0) {
+            log.debug("{} entrée(s) du journal des invalidations de cache supprimée(s)", purged);
+        }
+    }
+
+    /**
+     * Avance la position tant que les identifiants sont contigus ; un trou n'est sauté que si
+     * l'identifiant suivant a été lu depuis plus de GAP_TIMEOUT (les identifiants sont attribués dans l'ordre)
+     */
+    private void advancePosition(Instant now) {
+        while (!seenAhead.isEmpty()) {
+            Map.Entry<Long, Instant> next = seenAhead.firstEntry();
+            boolean contiguous = next.getKey() == position + 1;
+            if (!contiguous && next.getValue().plus(GAP_TIMEOUT).isAfter(now)) {
+                break;
+            }
+            if (!contiguous) {
+                skip(position + 1, next.getKey() - 1, now);
+            }
+            position = next.getKey();
+            seenAhead.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Mémorise les identifiants d'un trou pour les rechercher aux lectures suivantes
+     */
+    private void skip(long from, long to, Instant now) {
+        long count = to - from + 1;
+        log.warn("Identifiants {} à {} du journal des invalidations sautés après {} s, recherchés jusqu'à leur expiration",
+            from, to, GAP_TIMEOUT.toSeconds());
+        meterRegistry.counter("cache.invalidation.log.gaps", "result", "skipped").increment(count);
+        if (skipped.size() + count > MAX_SKIPPED_IDS) {
+            // Trop d'identifiants à suivre : les invalidations manquées ne peuvent plus être rattrapées clé par clé
+            log.warn("Plus de {} identifiants sautés en attente, vidage des caches locaux", MAX_SKIPPED_IDS);
+            meterRegistry.counter("cache.invalidation.log.gaps", "result", "dropped").increment(skipped.size() + count);
+            skipped.clear();
+            clearLocalCaches();
+            return;
+        }
+        for (long id = from; id <= to; id++) {
+            skipped.put(id, now);
+        }
+    }
+
+    /**
+     * Applique les entrées sautées apparues depuis (transactions validées tardivement)
+     * et oublie celles plus anciennes que la durée de conservation
+     */
+    private void recoverSkipped(Instant now) {
+        if (skipped.isEmpty()) {
+            return;
+        }
+        for (CacheInvalidationLogEntry entry : logRepository.findAllById(skipped.keySet())) {
+            skipped.remove(entry.getId());
+            meterRegistry.counter("cache.invalidation.log.gaps", "result", "recovered").increment();
+            log.debug("Entrée {} du journal des invalidations apparue après avoir été sautée", entry.getId());
+            if (!nodeId.equals(entry.getOriginNode())) {
+                apply(entry);
+            }
+        }
+        Instant expiry = now.minusMillis(retentionMs);
+        int before = skipped.size();
+        skipped.values().removeIf(skippedAt -> skippedAt.isBefore(expiry));
+        if (skipped.size() < before) {
+            meterRegistry.counter("cache.invalidation.log.gaps", "result", "expired").increment(before - skipped.size());
+        }
+    }
+
+    private void clearLocalCaches() {
+        cacheManager.getCacheNames().forEach(name -> {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+        listeners.forEach(RemoteCacheInvalidationListener::onRemoteInvalidationsMissed);
+    }
+
+    private void apply(CacheInvalidationLogEntry entry) {
+        listeners.forEach(listener -> listener.onRemoteInvalidation(entry.getCacheName(), entry.getCacheKey()));
+        Cache cache = cacheManager.getCache(entry.getCacheName());
+        if (cache == null) {
+            return;
+        }
+        if (entry.getCacheKey() == null) {
+            cache.clear();
+        } else {
+            cache.evict(entry.getCacheKey());
+        }
+        meterRegistry.counter("cache.invalidations", "cache", entry.getCacheName(), "result", "remote").increment();
+        log.debug("Invalidation distante du cache '{}' (clé {})", entry.getCacheName(), entry.getCacheKey());
+    }
+}
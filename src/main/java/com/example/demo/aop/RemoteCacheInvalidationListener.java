@@ -0,0 +1,22 @@
+package com.example.demo.aop;
+
+/**
+ * Notifié des invalidations de cache publiées par les autres nœuds
+ * Permet aux structures dérivées des données (filtres, index en mémoire) de suivre les écritures distantes
+ */
+public interface RemoteCacheInvalidationListener {
+
+    /**
+     * @param cacheName Le nom du cache invalidé
+     * @param key La clé invalidée, ou null si tout le cache a été vidé
+     */
+    void onRemoteInvalidation(String cacheName, String key);
+
+    /**
+     * Appelé lorsque des entrées du journal ont pu être définitivement manquées (trop d'identifiants sautés
+     * pour être recherchés) ; les caches locaux viennent d'être vidés, les structures dérivées doivent se resynchroniser
+     */
+    default void onRemoteInvalidationsMissed() {
+        // Rien à faire par défaut
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Component;
 /**
  * Aspect pour l'audit de sécurité des opérations sensibles
  * Journalise les accès aux fonctionnalités protégées
+ * (les connexions sont journalisées par JwtAuthenticationFilter)
  */
 @Aspect
 @Component
@@ -51,47 +52,6 @@ public class SecurityAuditingAspect {
             joinPoint.getSignature().getName());
     }
 
-    /**
-     * Enregistre les tentatives d'authentification réussies
-     * @param joinPoint Point d'entrée dans le code où l'aspect est appliqué
-     * @param result Le résultat retourné par la méthode
-     */
-    @AfterReturning(pointcut = "execution(* com.example.demo.controller.AuthController.authenticateUser(..))", returning = "result")
-    public void logSuccessfulAuthentication(JoinPoint joinPoint, Object result) {
-        // Extrait le nom d'utilisateur du premier argument (LoginRequest)
-        Object[] args = joinPoint.getArgs();
-        if (args.length > 0 && args[0] != null) {
-            try {
-                // Tente d'extraire le nom d'utilisateur de LoginRequest
-                String username = args[0].getClass().getMethod("getUsername").invoke(args[0]).toString();
-                log.info("Authentification réussie pour l'utilisateur: '{}'", username);
-            } catch (Exception e) {
-                log.info("Authentification réussie");
-            }
-        }
-    }
-
-    /**
-     * Enregistre les échecs d'authentification
-     * @param joinPoint Point d'entrée dans le code où l'aspect est appliqué
-     * @param exception L'exception levée
-     */
-    @AfterThrowing(pointcut = "execution(* com.example.demo.controller.AuthController.authenticateUser(..))", throwing = "exception")
-    public void logFailedAuthentication(JoinPoint joinPoint, Throwable exception) {
-        // Extrait le nom d'utilisateur du premier argument (LoginRequest)
-        Object[] args = joinPoint.getArgs();
-        if (args.length > 0 && args[0] != null) {
-            try {
-                // Tente d'extraire le nom d'utilisateur de LoginRequest
-                String username = args[0].getClass().getMethod("getUsername").invoke(args[0]).toString();
-                log.warn("Échec d'authentification pour l'utilisateur: '{}', raison: {}",
-                    username, exception.getMessage());
-            } catch (Exception e) {
-                log.warn("Échec d'authentification, raison: {}", exception.getMessage());
-            }
-        }
-    }
-
     /**
      * Enregistre les accès refusés aux méthodes sécurisées
      * @param joinPoint Point d'entrée dans le code où l'aspect est appliqué
@@ -0,0 +1,302 @@
+package com.example.demo.aop;
+
+import com.example.demo.model.CacheInvalidationLogEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Applique les invalidations et écritures de cache après la validation de la transaction courante
+ * Les opérations demandées pendant une transaction sont regroupées par cache et dédoublonnées par clé
+ * (la dernière l'emporte, un vidage complet absorbe les opérations unitaires), puis appliquées en une fois
+ * après le commit. En cas de rollback elles sont abandonnées. Hors transaction, elles sont appliquées immédiatement.
+ * Le compteur "cache.invalidations" (tags cache et result=applied|skipped) suit les opérations appliquées
+ * et celles absorbées ou abandonnées.
+ * Les opérations sont aussi publiées, dans la transaction, dans le journal partagé ({@link CacheInvalidationLog})
+ * pour que les autres nœuds retirent les mêmes clés de leurs caches locaux.
+ */
+@Component
+@Slf4j
+public class TransactionalCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationLog invalidationLog;
+
+    /**
+     * Sérialise les mises à jour en lecture-modification-écriture d'une même entrée
+     */
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    /**
+     * Longueur maximale d'une clé dans le journal partagé (colonne cache_key)
+     */
+    private static final int MAX_LOGGED_KEY_LENGTH = 255;
+
+    public TransactionalCacheInvalidator(CacheManager cacheManager, MeterRegistry meterRegistry,
+                                         CacheInvalidationLog invalidationLog) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.invalidationLog = invalidationLog;
+    }
+
+    /**
+     * Retire une clé d'un cache
+     * @param cacheName Le nom du cache
+     * @param key La clé à retirer (ignorée si null)
+     */
+    public void evict(String cacheName, Object key) {
+        if (key != null) {
+            enqueue(cacheName, key, Evict.INSTANCE);
+        }
+    }
+
+    /**
+     * Écrit une valeur dans un cache
+     * @param cacheName Le nom du cache
+     * @param key La clé (ignorée si null)
+     * @param value La valeur
+     */
+    public void put(String cacheName, Object key, Object value) {
+        if (key != null) {
+            enqueue(cacheName, key, new Put(value));
+        }
+    }
+
+    /**
+     * Transforme une entrée existante ; sans effet si la clé n'est pas en cache
+     * @param cacheName Le nom du cache
+     * @param key La clé
+     * @param update La transformation à appliquer à la valeur en cache
+     */
+    public void update(String cacheName, Object key, UnaryOperator<Object> update) {
+        enqueue(cacheName, key, new Update(update));
+    }
+
+    /**
+     * Vide entièrement un cache
+     * @param cacheName Le nom du cache
+     */
+    public void clear(String cacheName) {
+        enqueue(cacheName, PendingCacheOperations::clear);
+    }
+
+    private void enqueue(String cacheName, Object key, Operation operation) {
+        enqueue(cacheName, pending -> pending.add(key, operation));
+    }
+
+    private void enqueue(String cacheName, Consumer<PendingCacheOperations> operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Batch batch = new Batch();
+            operation.accept(batch.forCache(cacheName));
+            invalidationLog.publish(batch.logEntries());
+            apply(batch);
+            return;
+        }
+        operation.accept(currentBatch().forCache(cacheName));
+    }
+
+    /**
+     * Retourne le lot de la transaction courante, en l'enregistrant au premier appel
+     */
+    private Batch currentBatch() {
+        Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+        if (batch != null) {
+            return batch;
+        }
+        Batch created = new Batch();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                invalidationLog.publish(created.logEntries());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalCacheInvalidator.this);
+                if (status == STATUS_COMMITTED) {
+                    apply(created);
+                } else {
+                    discard(created);
+                }
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Applique un lot, cache par cache
+     */
+    private void apply(Batch batch) {
+        batch.caches.forEach((cacheName, pending) -> {
+            count(cacheName, "skipped", pending.skipped);
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                log.debug("Cache '{}' non trouvé, aucune invalidation nécessaire", cacheName);
+                return;
+            }
+            try {
+                if (pending.clear) {
+                    cache.clear();
+                    count(cacheName, "applied", 1);
+                    log.debug("Cache '{}' invalidé avec succès", cacheName);
+                    return;
+                }
+                pending.operations.forEach((key, operation) -> apply(cache, key, operation));
+                count(cacheName, "applied", pending.operations.size());
+            } catch (Exception e) {
+                log.warn("Erreur lors de l'invalidation du cache '{}': {}", cacheName, e.getMessage());
+            }
+        });
+    }
+
+    private void apply(Cache cache, Object key, Operation operation) {
+        if (operation instanceof Put put) {
+            cache.put(key, put.value());
+        } else if (operation instanceof Update update) {
+            updateLock.lock();
+            try {
+                Cache.ValueWrapper current = cache.get(key);
+                if (current != null && current.get() != null) {
+                    cache.put(key, update.update().apply(current.get()));
+                }
+            } finally {
+                updateLock.unlock();
+            }
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * Abandonne un lot après un rollback
+     */
+    private void discard(Batch batch) {
+        batch.caches.forEach((cacheName, pending) ->
+            count(cacheName, "skipped", pending.skipped + (pending.clear ? 1 : pending.operations.size())));
+        log.debug("Transaction annulée, invalidations de cache abandonnées pour {}", batch.caches.keySet());
+    }
+
+    private void count(String cacheName, String result, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter("cache.invalidations", "cache", cacheName, "result", result).increment(amount);
+        }
+    }
+
+    /**
+     * Opérations en attente, regroupées par cache
+     */
+    private static final class Batch {
+        private final Map<String, PendingCacheOperations> caches = new LinkedHashMap<>();
+
+        PendingCacheOperations forCache(String cacheName) {
+            return caches.computeIfAbsent(cacheName, name -> new PendingCacheOperations());
+        }
+
+        /**
+         * Traduit le lot en invalidations pour les autres nœuds : toute écriture devient une éviction
+         * et une clé qui ne peut pas être journalisée (ni textuelle ni Long, ou trop longue) vide le cache
+         */
+        List<CacheInvalidationLogEntry> logEntries() {
+            List<CacheInvalidationLogEntry> entries = new ArrayList<>();
+            caches.forEach((cacheName, pending) -> {
+                boolean loggableKeys = pending.operations.keySet().stream()
+                    .allMatch(key -> key instanceof Long
+                        || key instanceof String text && text.length() <= MAX_LOGGED_KEY_LENGTH);
+                if (pending.clear || !loggableKeys) {
+                    entries.add(logEntry(cacheName, null));
+                } else {
+                    pending.operations.keySet().forEach(key -> entries.add(logEntry(cacheName, String.valueOf(key))));
+                }
+            });
+            return entries;
+        }
+
+        private static CacheInvalidationLogEntry logEntry(String cacheName, String key) {
+            CacheInvalidationLogEntry entry = new CacheInvalidationLogEntry();
+            entry.setCacheName(cacheName);
+            entry.setCacheKey(key);
+            return entry;
+        }
+    }
+
+    /**
+     * Opérations en attente sur un cache, une seule par clé
+     */
+    private static final class PendingCacheOperations {
+        private final Map<Object, Operation> operations = new LinkedHashMap<>();
+        private boolean clear;
+        private int skipped;
+
+        void add(Object key, Operation operation) {
+            if (clear) {
+                skipped++;
+                return;
+            }
+            Operation previous = operations.get(key);
+            if (previous != null) {
+                skipped++;
+                operation = previous.then(operation);
+            }
+            operations.put(key, operation);
+        }
+
+        void clear() {
+            skipped += clear ? 1 : operations.size();
+            operations.clear();
+            clear = true;
+        }
+    }
+
+    private sealed interface Operation permits Evict, Put, Update {
+
+        /**
+         * Combine cette opération avec une opération ultérieure sur la même clé
+         */
+        default Operation then(Operation next) {
+            return next;
+        }
+    }
+
+    private enum Evict implements Operation {
+        INSTANCE;
+
+        @Override
+        public Operation then(Operation next) {
+            // Une mise à jour d'une entrée retirée reste sans effet
+            return next instanceof Update ? this : next;
+        }
+    }
+
+    private record Put(Object value) implements Operation {
+
+        @Override
+        public Operation then(Operation next) {
+            return next instanceof Update update ? new Put(update.update().apply(value)) : next;
+        }
+    }
+
+    private record Update(UnaryOperator<Object> update) implements Operation {
+
+        @Override
+        public Operation then(Operation next) {
+            if (next instanceof Update following) {
+                return new Update(value -> following.update().apply(update.apply(value)));
+            }
+            return next;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Configuration des réponses asynchrones (StreamingResponseBody, Callable...)
+ * Le délai global (spring.mvc.async.request-timeout) reste celui par défaut ; un contrôleur peut accorder
+ * un délai plus long à sa seule réponse en renseignant l'attribut de requête {@link #TIMEOUT_ATTRIBUTE}.
+ */
+@Configuration
+public class AsyncRequestConfig implements WebMvcConfigurer {
+
+    /**
+     * Attribut de requête portant le délai maximal (en millisecondes) de la réponse asynchrone
+     */
+    public static final String TIMEOUT_ATTRIBUTE = AsyncRequestConfig.class.getName() + ".timeoutMs";
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // Appelé avant le démarrage du traitement asynchrone, quand le délai peut encore être modifié
+                Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeout instanceof Long timeoutMs && request instanceof AsyncWebRequest asyncRequest) {
+                    asyncRequest.setTimeout(timeoutMs);
+                }
+            }
+        });
+    }
+}
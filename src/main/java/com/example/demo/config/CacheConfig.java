@@ -1,35 +1,183 @@
 package com.example.demo.config;
 
+import com.example.demo.util.LongKeyedCache;
+import com.example.demo.util.OffHeapStore;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.CompositeCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Configuration du système de cache
  * Permet de stocker temporairement des données pour améliorer les performances
+ * Chaque cache est borné en taille et en durée de vie (voir CacheProperties) ;
+ * les statistiques (succès, échecs, évictions, temps de chargement) sont publiées dans Micrometer
+ * sous les métriques cache.* par l'auto-configuration d'Actuator
+ * Les caches listés dans app.cache.longKeyed sont indexés par ID sans boxing (voir LongKeyedCache)
+ * et ceux listés dans app.cache.offHeap sont sérialisés hors du tas (voir OffHeapSpringCache)
  */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
     /**
      * Configure le gestionnaire de cache
+     * @param cacheProperties Les limites par cache
+     * @param codecs Les codecs des caches hors tas
      * @return Le gestionnaire de cache configuré
      */
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(Arrays.asList(
-            "users",           // Cache pour la liste des utilisateurs
-            "userByUsername",  // Cache pour les recherches par nom d'utilisateur
-            "userByEmail",     // Cache pour les recherches par email
-            "roles",           // Cache pour la liste des rôles
-            "permissions"      // Cache pour la liste des permissions
-        ));
-        return cacheManager;
+    public CacheManager cacheManager(CacheProperties cacheProperties, ObjectProvider<OffHeapValueCodec<?>> codecs) {
+        Set<String> caffeineCacheNames = new HashSet<>(cacheProperties.getSpecs().keySet());
+        caffeineCacheNames.removeAll(cacheProperties.getLongKeyed());
+        caffeineCacheNames.removeAll(cacheProperties.getOffHeap());
+
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCaffeine(builder(cacheProperties.getDefaults()));
+        caffeineCacheManager.setCacheNames(caffeineCacheNames);
+        cacheProperties.getSpecs().forEach((name, spec) -> {
+            if (caffeineCacheNames.contains(name)) {
+                caffeineCacheManager.registerCustomCache(name, builder(spec).build());
+            }
+        });
+
+        List<Cache> customCaches = new ArrayList<>();
+        cacheProperties.getLongKeyed().forEach(name -> customCaches.add(longKeyedCache(name, specOf(cacheProperties, name))));
+        cacheProperties.getOffHeap().forEach(name -> customCaches.add(offHeapCache(name, specOf(cacheProperties, name),
+            () -> codecs.orderedStream().filter(codec -> codec.cacheName().equals(name)).findFirst().orElse(null))));
+        SimpleCacheManager customCacheManager = new SimpleCacheManager();
+        customCacheManager.setCaches(customCaches);
+        customCacheManager.initializeCaches();
+
+        return new CompositeCacheManager(caffeineCacheManager, customCacheManager);
+    }
+
+    /**
+     * Publie les statistiques des caches indexés par ID sous les métriques cache.*
+     * @return Le fournisseur de métriques des caches LongKeyedSpringCache
+     */
+    @Bean
+    public CacheMeterBinderProvider<LongKeyedSpringCache> longKeyedCacheMeterBinderProvider() {
+        return (cache, tags) -> new CacheMeterBinder<LongKeyedCache<Object>>(cache.getNativeCache(), cache.getName(), tags) {
+            @Override
+            protected Long size() {
+                return (long) getCache().size();
+            }
+
+            @Override
+            protected long hitCount() {
+                return getCache().hitCount();
+            }
+
+            @Override
+            protected Long missCount() {
+                return getCache().missCount();
+            }
+
+            @Override
+            protected Long evictionCount() {
+                return getCache().evictionCount();
+            }
+
+            @Override
+            protected long putCount() {
+                return getCache().putCount();
+            }
+
+            @Override
+            protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+                // Aucune métrique propre
+            }
+        };
+    }
+
+    /**
+     * Publie les statistiques des caches hors tas sous les métriques cache.*, ainsi que la mémoire hors tas
+     * réservée (cache.offheap.reserved) et occupée par le journal (cache.offheap.used)
+     * L'effet sur le ramasse-miettes se lit dans jvm.gc.pause
+     * @return Le fournisseur de métriques des caches OffHeapSpringCache
+     */
+    @Bean
+    public CacheMeterBinderProvider<OffHeapSpringCache> offHeapCacheMeterBinderProvider() {
+        return (cache, tags) -> new CacheMeterBinder<OffHeapSpringCache>(cache, cache.getName(), tags) {
+            @Override
+            protected Long size() {
+                return getCache().sum(OffHeapStore::size);
+            }
+
+            @Override
+            protected long hitCount() {
+                return getCache().sum(OffHeapStore::hitCount);
+            }
+
+            @Override
+            protected Long missCount() {
+                return getCache().sum(OffHeapStore::missCount);
+            }
+
+            @Override
+            protected Long evictionCount() {
+                return getCache().sum(OffHeapStore::evictionCount);
+            }
+
+            @Override
+            protected long putCount() {
+                return getCache().sum(OffHeapStore::putCount);
+            }
+
+            @Override
+            protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+                Gauge.builder("cache.offheap.reserved", cache, offHeapCache -> offHeapCache.sum(OffHeapStore::reservedBytes))
+                    .tags(getTagsWithCacheName())
+                    .description("Mémoire hors tas réservée par le cache (journal et index)")
+                    .baseUnit("bytes")
+                    .register(registry);
+                Gauge.builder("cache.offheap.used", cache, offHeapCache -> offHeapCache.sum(OffHeapStore::usedBytes))
+                    .tags(getTagsWithCacheName())
+                    .description("Octets du journal occupés par des enregistrements")
+                    .baseUnit("bytes")
+                    .register(registry);
+            }
+        };
+    }
+
+    private static CacheProperties.Spec specOf(CacheProperties cacheProperties, String name) {
+        return cacheProperties.getSpecs().getOrDefault(name, cacheProperties.getDefaults());
+    }
+
+    private static OffHeapSpringCache offHeapCache(String name, CacheProperties.Spec spec,
+                                                   Supplier<OffHeapValueCodec<?>> codec) {
+        return new OffHeapSpringCache(name, spec.getOffHeapSize().toBytes(), spec.getMaximumSize(),
+            spec.getTtl().toNanos(), codec);
+    }
+
+    private static LongKeyedSpringCache longKeyedCache(String name, CacheProperties.Spec spec) {
+        int maximumSize = (int) Math.min(spec.getMaximumSize(), Integer.MAX_VALUE / 2);
+        return new LongKeyedSpringCache(name, new LongKeyedCache<>(maximumSize, spec.getTtl().toNanos()));
+    }
+
+    private static Caffeine<Object, Object> builder(CacheProperties.Spec spec) {
+        return Caffeine.newBuilder()
+            .maximumSize(spec.getMaximumSize())
+            .expireAfterWrite(spec.getTtl())
+            .recordStats();
     }
 }
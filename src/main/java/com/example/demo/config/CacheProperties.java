@@ -0,0 +1,61 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Limites des caches, configurées par nom de cache dans application.properties
+ * Exemple : app.cache.specs.userByUsername.maximumSize=100000
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    /**
+     * Limites appliquées aux caches sans configuration propre
+     */
+    private Spec defaults = new Spec();
+
+    /**
+     * Limites par nom de cache ; chaque cache listé est créé au démarrage
+     */
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    /**
+     * Caches indexés par un ID long, servis par LongKeyedCache plutôt que par Caffeine
+     * (éviction par curseur tournant plutôt que W-TinyLFU)
+     */
+    private Set<String> longKeyed = new LinkedHashSet<>();
+
+    /**
+     * Caches dont les valeurs sont sérialisées hors du tas (éviction FIFO), pour les très grands volumes
+     * Chacun requiert un bean OffHeapValueCodec portant son nom
+     */
+    private Set<String> offHeap = new LinkedHashSet<>();
+
+    @Data
+    public static class Spec {
+
+        /**
+         * Nombre maximal d'entrées ; au-delà, les entrées les moins utiles sont évincées (W-TinyLFU)
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Durée de vie d'une entrée après son écriture
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * Mémoire hors tas du journal, pour un cache listé dans app.cache.offHeap
+         */
+        private DataSize offHeapSize = DataSize.ofMegabytes(256);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.config;
+
+import com.example.demo.util.LongKeyedCache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Adaptateur Spring d'un {@link LongKeyedCache}, pour les caches indexés par ID
+ * Les clés Long sont déballées dès l'entrée ; les clés textuelles (invalidations reçues des autres nœuds)
+ * sont converties. Les valeurs nulles ne sont pas mises en cache.
+ */
+public class LongKeyedSpringCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final LongKeyedCache<Object> cache;
+
+    /**
+     * @param name Le nom du cache
+     * @param cache Le cache sous-jacent
+     */
+    public LongKeyedSpringCache(String name, LongKeyedCache<Object> cache) {
+        super(false);
+        this.name = name;
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public LongKeyedCache<Object> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return cache.get(toLong(key));
+    }
+
+    /**
+     * Charge la valeur absente sans verrou par clé : deux chargements concurrents d'une même clé
+     * sont possibles, mais une valeur chargée avant une invalidation n'est jamais écrite
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long id = toLong(key);
+        Object cached = cache.get(id);
+        if (cached != null) {
+            return (T) cached;
+        }
+        long invalidationStamp = cache.invalidationStamp();
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            cache.putIfNotInvalidatedSince(id, value, invalidationStamp);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            cache.remove(toLong(key));
+            return;
+        }
+        cache.put(toLong(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.remove(toLong(key));
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    private static long toLong(Object key) {
+        if (key instanceof Number number) {
+            return number.longValue();
+        }
+        if (key instanceof String text) {
+            return Long.parseLong(text);
+        }
+        throw new IllegalArgumentException("Clé non numérique pour un cache indexé par ID : " + key);
+    }
+}
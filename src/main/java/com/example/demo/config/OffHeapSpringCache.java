@@ -0,0 +1,176 @@
+package com.example.demo.config;
+
+import com.example.demo.util.OffHeapStore;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache Spring dont les valeurs sont sérialisées hors du tas Java
+ * Destiné aux très grands volumes d'utilisateurs : les entrées ne sont plus parcourues par le ramasse-miettes.
+ * Les clés sont des chaînes (UTF-8) ; le stockage est réparti en STRIPES segments indépendants,
+ * chacun avec son verrou, son journal et son index. Les valeurs nulles ne sont pas mises en cache.
+ */
+public class OffHeapSpringCache extends AbstractValueAdaptingCache {
+
+    static final int STRIPES = 16;
+
+    private final String name;
+    private final OffHeapStore[] stripes;
+    private final Supplier<OffHeapValueCodec<?>> codecSupplier;
+    private volatile OffHeapValueCodec<Object> codec;
+
+    /**
+     * @param name Le nom du cache
+     * @param capacityBytes Mémoire hors tas du journal, tous segments confondus
+     * @param maximumSize Nombre maximal d'entrées, tous segments confondus
+     * @param ttlNanos Durée de vie d'une entrée après son écriture, en nanosecondes
+     * @param codecSupplier Fournit le codec des valeurs, résolu au premier usage
+     */
+    public OffHeapSpringCache(String name, long capacityBytes, long maximumSize, long ttlNanos,
+                              Supplier<OffHeapValueCodec<?>> codecSupplier) {
+        super(false);
+        this.name = name;
+        this.codecSupplier = codecSupplier;
+        this.stripes = new OffHeapStore[STRIPES];
+        int stripeBytes = (int) Math.min(Integer.MAX_VALUE - 8, Math.ceilDiv(capacityBytes, STRIPES));
+        int stripeEntries = (int) Math.min(Integer.MAX_VALUE / 64, Math.ceilDiv(maximumSize, STRIPES));
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new OffHeapStore(stripeBytes, stripeEntries, ttlNanos);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public OffHeapStore[] getNativeCache() {
+        return stripes;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        byte[] keyBytes = keyBytes(key);
+        byte[] value = stripe(keyBytes).get(keyBytes);
+        return value == null ? null : decode(value);
+    }
+
+    /**
+     * Charge la valeur absente sans verrou par clé ; une valeur chargée avant une invalidation n'est pas écrite
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        byte[] keyBytes = keyBytes(key);
+        OffHeapStore stripe = stripe(keyBytes);
+        byte[] cached = stripe.get(keyBytes);
+        if (cached != null) {
+            return (T) decode(cached);
+        }
+        long invalidationStamp = stripe.invalidationStamp();
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            stripe.putIfNotInvalidatedSince(keyBytes, encode(value), invalidationStamp);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        byte[] keyBytes = keyBytes(key);
+        if (value == null) {
+            stripe(keyBytes).remove(keyBytes);
+            return;
+        }
+        stripe(keyBytes).put(keyBytes, encode(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        byte[] keyBytes = keyBytes(key);
+        stripe(keyBytes).remove(keyBytes);
+    }
+
+    @Override
+    public void clear() {
+        for (OffHeapStore stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * @return Somme d'une statistique sur tous les segments
+     */
+    long sum(ToLongFunction<OffHeapStore> statistic) {
+        long total = 0;
+        for (OffHeapStore stripe : stripes) {
+            total += statistic.applyAsLong(stripe);
+        }
+        return total;
+    }
+
+    private OffHeapStore stripe(byte[] keyBytes) {
+        int h = Arrays.hashCode(keyBytes);
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static byte[] keyBytes(Object key) {
+        if (!(key instanceof String text)) {
+            throw new IllegalArgumentException("Clé non textuelle pour un cache hors tas : " + key);
+        }
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] encode(Object value) {
+        OffHeapValueCodec<Object> valueCodec = codec();
+        if (!valueCodec.valueType().isInstance(value)) {
+            throw new IllegalArgumentException("Valeur de type " + value.getClass().getName()
+                + " non sérialisable dans le cache hors tas '" + name + "'");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            valueCodec.write(value, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object decode(byte[] value) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+            return codec().read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private OffHeapValueCodec<Object> codec() {
+        OffHeapValueCodec<Object> current = codec;
+        if (current == null) {
+            current = (OffHeapValueCodec<Object>) codecSupplier.get();
+            if (current == null) {
+                throw new IllegalStateException("Aucun codec déclaré pour le cache hors tas '" + name + "'");
+            }
+            codec = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.config;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Sérialisation compacte des valeurs d'un cache hors tas (voir OffHeapSpringCache)
+ * Une implémentation déclarée comme bean est associée au cache dont elle porte le nom.
+ * @param <V> Le type des valeurs du cache
+ */
+public interface OffHeapValueCodec<V> {
+
+    /**
+     * @return Le nom du cache dont les valeurs sont sérialisées par ce codec
+     */
+    String cacheName();
+
+    /**
+     * @return Le type des valeurs acceptées
+     */
+    Class<V> valueType();
+
+    /**
+     * Écrit une valeur
+     * @param value La valeur
+     * @param out La sortie
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    void write(V value, DataOutput out) throws IOException;
+
+    /**
+     * Relit une valeur écrite par {@link #write}
+     * @param in L'entrée
+     * @return La valeur
+     * @throws IOException En cas d'erreur de lecture
+     */
+    V read(DataInput in) throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration des tâches planifiées
+ * Active @Scheduled (rotation des clés JWT, purges périodiques...)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // La configuration est faite uniquement avec les annotations
+}
@@ -1,11 +1,19 @@
 package com.example.demo.config;
 
+import com.example.demo.security.AuthoritySetExpressionHandler;
+import com.example.demo.security.BoundedPasswordEncoder;
 import com.example.demo.security.JwtAuthenticationFilter;
 import com.example.demo.security.JwtAuthorizationFilter;
 import com.example.demo.security.JwtUtils;
+import com.example.demo.security.RefreshTokenManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -32,11 +40,24 @@ public class SecurityConfig {
 
     /**
      * Configure l'encodeur de mot de passe
-     * BCrypt est un algorithme de hachage sécurisé pour les mots de passe
+     * BCrypt est un algorithme de hachage sécurisé pour les mots de passe ;
+     * il s'exécute sur un pool borné pour ne pas saturer les threads de requête
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${app.passwordHashingThreads:0}") int threads,
+                                           @Value("${app.passwordHashingQueueCapacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity, meterRegistry);
+    }
+
+    /**
+     * Configure l'évaluation des expressions de sécurité des méthodes (@PreAuthorize)
+     * hasAuthority / hasRole testent directement les masques des AuthoritySet
+     */
+    @Bean
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        return new AuthoritySetExpressionHandler();
     }
 
     /**
@@ -55,10 +76,12 @@ public class SecurityConfig {
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http,
                                            AuthenticationManager authenticationManager,
-                                           JwtUtils jwtUtils) throws Exception {
-        // Configurer le filtre d'authentification JWT avec le JwtUtils injecté
+                                           JwtUtils jwtUtils,
+                                           RefreshTokenManager refreshTokenManager,
+                                           ObjectMapper objectMapper) throws Exception {
+        // Configurer le filtre d'authentification JWT (seul point d'entrée de la connexion)
         JwtAuthenticationFilter jwtAuthenticationFilter =
-            new JwtAuthenticationFilter(authenticationManager, jwtUtils);
+            new JwtAuthenticationFilter(authenticationManager, jwtUtils, refreshTokenManager, objectMapper);
         jwtAuthenticationFilter.setFilterProcessesUrl("/api/auth/login");
 
         http
@@ -68,9 +91,12 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             // Configure les règles d'autorisation pour les requêtes HTTP
             .authorizeHttpRequests(auth -> auth
+                // Fin d'une réponse asynchrone (export en flux) : la requête d'origine a déjà été autorisée
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Endpoints publics accessibles sans authentification
                 .requestMatchers(
                     "/api/auth/**",
+                    "/.well-known/jwks.json",
                     "/h2-console/**",
                     "/error",
                     "/api/test/**", // Endpoints de test
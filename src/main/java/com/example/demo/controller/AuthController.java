@@ -1,14 +1,18 @@
 package com.example.demo.controller;
 
 
-import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.RefreshTokenRequest;
 import com.example.demo.dto.RegisterRequest;
 import com.example.demo.dto.AuthenticationResponse;
+import com.example.demo.exception.InvalidRefreshTokenException;
 import com.example.demo.model.Role;
 import com.example.demo.model.User;
-import com.example.demo.repository.RoleRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.AuthorityRegistry;
 import com.example.demo.security.JwtUtils;
+import com.example.demo.security.RefreshTokenManager;
+import com.example.demo.security.UserDetailsImpl;
+import com.example.demo.security.UserExistenceFilter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -17,12 +21,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -32,6 +33,7 @@ import java.util.Set;
 
 /**
  * Contrôleur pour gérer l'authentification et l'enregistrement des utilisateurs
+ * La connexion (POST /api/auth/login) est traitée par JwtAuthenticationFilter
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -39,50 +41,80 @@ import java.util.Set;
 @Tag(name = "Authentification", description = "API d'authentification")
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final AuthorityRegistry authorityRegistry;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
+    private final RefreshTokenManager refreshTokenManager;
+    private final UserExistenceFilter userExistenceFilter;
 
     /**
-     * Endpoint pour l'authentification des utilisateurs existants
-     * @param loginRequest Les identifiants de connexion
-     * @return La réponse contenant le token JWT
+     * Endpoint pour le renouvellement du token JWT à partir d'un refresh token
+     * Aucun mot de passe n'est vérifié : le refresh token est consommé et remplacé par un nouveau
+     * @param refreshTokenRequest Le refresh token obtenu précédemment
+     * @return La réponse contenant le nouveau token JWT et le nouveau refresh token
      */
-    @PostMapping("/login")
-    @Operation(summary = "Authentifier un utilisateur", description = "Authentifie un utilisateur et retourne un token JWT")
+    @PostMapping("/refresh")
+    @Operation(summary = "Renouveler le token", description = "Échange un refresh token contre un nouveau token JWT")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Authentification réussie",
+        @ApiResponse(responseCode = "200", description = "Token renouvelé",
             content = @Content(schema = @Schema(implementation = AuthenticationResponse.class))),
-        @ApiResponse(responseCode = "401", description = "Identifiants invalides")
+        @ApiResponse(responseCode = "401", description = "Refresh token invalide, expiré ou déjà utilisé")
     })
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        // Authentification de l'utilisateur
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-        );
-
-        // Mise à jour du contexte de sécurité
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        // Génération du token JWT
-        String jwt = jwtUtils.generateJwtToken(authentication);
-
-        // Récupération des détails de l'utilisateur
-        User user = userRepository.findByUsername(loginRequest.getUsername()).orElseThrow();
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        // Consommation du refresh token et émission de son successeur
+        RefreshTokenManager.Rotation rotation = refreshTokenManager.rotate(refreshTokenRequest.getRefreshToken());
+
+        // Rechargement de l'utilisateur pour prendre en compte ses rôles et l'état de son compte
+        UserDetailsImpl userDetails = userRepository.findById(rotation.userId())
+            .map(user -> UserDetailsImpl.build(user, authorityRegistry))
+            .orElseThrow(() -> new InvalidRefreshTokenException("Utilisateur introuvable"));
+
+        if (!userDetails.isEnabled() || !userDetails.isAccountNonLocked() || !userDetails.isAccountNonExpired()) {
+            refreshTokenManager.revokeAllForUser(userDetails.getId());
+            throw new InvalidRefreshTokenException("Compte désactivé ou verrouillé");
+        }
 
-        // Création de la réponse
         AuthenticationResponse response = new AuthenticationResponse(
-            jwt,
-            user.getId(),
-            user.getUsername(),
-            user.getEmail()
+            jwtUtils.generateJwtToken(userDetails),
+            rotation.refreshToken(),
+            userDetails.getId(),
+            userDetails.getUsername(),
+            userDetails.getEmail()
         );
 
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Endpoint pour la déconnexion : révoque le token présenté jusqu'à son expiration
+     * ainsi que le refresh token éventuellement fourni
+     * @param authorization L'en-tête Authorization contenant le token JWT
+     * @param refreshTokenRequest Le refresh token à révoquer (optionnel)
+     * @return La réponse indiquant le succès de l'opération
+     */
+    @PostMapping("/logout")
+    @Operation(summary = "Déconnecter un utilisateur", description = "Révoque le token JWT présenté")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Token révoqué"),
+        @ApiResponse(responseCode = "400", description = "Token absent ou invalide")
+    })
+    public ResponseEntity<?> logoutUser(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                        @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+        if (refreshTokenRequest != null && refreshTokenRequest.getRefreshToken() != null) {
+            refreshTokenManager.revoke(refreshTokenRequest.getRefreshToken());
+        }
+
+        if (authorization == null || !authorization.startsWith("Bearer ")
+            || !jwtUtils.revokeJwtToken(authorization.substring(7))) {
+            return ResponseEntity
+                .badRequest()
+                .body(Map.of("message", "Token absent ou invalide"));
+        }
+
+        return ResponseEntity.ok(Map.of("message", "Déconnexion réussie"));
+    }
+
     /**
      * Endpoint pour l'enregistrement de nouveaux utilisateurs
      * @param registerRequest Les informations du nouvel utilisateur
@@ -95,15 +127,17 @@ public class AuthController {
         @ApiResponse(responseCode = "400", description = "Données invalides ou nom d'utilisateur/email déjà utilisé")
     })
     public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
-        // Vérification de l'existence du nom d'utilisateur
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
+        // Vérification de l'existence du nom d'utilisateur (sans requête si le filtre l'exclut)
+        if (userExistenceFilter.mightExistByUsername(registerRequest.getUsername())
+            && userRepository.existsByUsername(registerRequest.getUsername())) {
             return ResponseEntity
                 .badRequest()
                 .body(Map.of("message", "Ce nom d'utilisateur est déjà pris"));
         }
 
         // Vérification de l'existence de l'email
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
+        if (userExistenceFilter.mightExistByEmail(registerRequest.getEmail())
+            && userRepository.existsByEmail(registerRequest.getEmail())) {
             return ResponseEntity
                 .badRequest()
                 .body(Map.of("message", "Cette adresse email est déjà utilisée"));
@@ -115,25 +149,40 @@ public class AuthController {
         user.setEmail(registerRequest.getEmail());
         user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
 
-        // Attribution des rôles
+        // Attribution des rôles (résolus par le registre des autorités, sans requête)
         Set<Role> roles = new HashSet<>();
 
         if (registerRequest.getRoles() == null || registerRequest.getRoles().isEmpty()) {
             // Attribution du rôle USER par défaut
-            Role userRole = roleRepository.findByName("USER")
+            Role userRole = authorityRegistry.findRole("USER")
                 .orElseThrow(() -> new RuntimeException("Rôle USER non trouvé"));
             roles.add(userRole);
         } else {
             // Attribution des rôles demandés
             registerRequest.getRoles().forEach(roleName -> {
-                Role role = roleRepository.findByName(roleName)
+                Role role = authorityRegistry.findRole(roleName)
                     .orElseThrow(() -> new RuntimeException("Rôle " + roleName + " non trouvé"));
                 roles.add(role);
             });
         }
 
         user.setRoles(roles);
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Enregistrement concurrent, ou pas encore connu du filtre de ce nœud : la contrainte d'unicité tranche
+            if (userRepository.existsByUsername(registerRequest.getUsername())) {
+                return ResponseEntity
+                    .badRequest()
+                    .body(Map.of("message", "Ce nom d'utilisateur est déjà pris"));
+            }
+            if (userRepository.existsByEmail(registerRequest.getEmail())) {
+                return ResponseEntity
+                    .badRequest()
+                    .body(Map.of("message", "Cette adresse email est déjà utilisée"));
+            }
+            throw e;
+        }
 
         return ResponseEntity.status(HttpStatus.CREATED)
             .body(Map.of("message", "Utilisateur enregistré avec succès"));
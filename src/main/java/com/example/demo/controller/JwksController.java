@@ -0,0 +1,88 @@
+package com.example.demo.controller;
+
+import com.example.demo.security.JwtKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigInteger;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contrôleur exposant les clés publiques de vérification au format JWKS (RFC 7517)
+ * Permet aux autres nœuds et services de vérifier les tokens sans secret partagé
+ */
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Authentification", description = "API d'authentification")
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    /**
+     * Retourne les clés publiques actuellement acceptées
+     * Les secrets HMAC ne sont jamais publiés : la liste est vide si l'algorithme configuré est HS512
+     * @return Le document JWKS
+     */
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(summary = "Clés publiques JWT", description = "Retourne les clés publiques de vérification au format JWKS")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        keyRing.publicKeys().forEach((kid, publicKey) -> keys.add(toJwk(kid, publicKey)));
+
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+            .body(Map.of("keys", keys));
+    }
+
+    /**
+     * Convertit une clé publique en JWK
+     * @param kid L'identifiant de la clé
+     * @param publicKey La clé publique RSA ou EC
+     * @return La représentation JWK de la clé
+     */
+    private Map<String, Object> toJwk(String kid, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+
+        if (publicKey instanceof RSAPublicKey rsaKey) {
+            jwk.put("kty", "RSA");
+            jwk.put("alg", "RS256");
+            jwk.put("n", base64Url(rsaKey.getModulus(), 0));
+            jwk.put("e", base64Url(rsaKey.getPublicExponent(), 0));
+        } else if (publicKey instanceof ECPublicKey ecKey) {
+            jwk.put("kty", "EC");
+            jwk.put("alg", "ES256");
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url(ecKey.getW().getAffineX(), 32));
+            jwk.put("y", base64Url(ecKey.getW().getAffineY(), 32));
+        }
+
+        return jwk;
+    }
+
+    /**
+     * Encode un entier non signé en Base64url, éventuellement complété à une taille fixe
+     */
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        int offset = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int size = Math.max(bytes.length - offset, length);
+        byte[] unsigned = new byte[size];
+        System.arraycopy(bytes, offset, unsigned, size - (bytes.length - offset), bytes.length - offset);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+    }
+}
@@ -1,24 +1,36 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.AsyncRequestConfig;
 import com.example.demo.dto.PasswordChangeRequest;
+import com.example.demo.dto.UserImportReport;
+import com.example.demo.dto.UserPage;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.RefreshTokenManager;
+import com.example.demo.security.UserTokenVersionRegistry;
+import com.example.demo.service.UserExportService;
+import com.example.demo.service.UserImportService;
+import com.example.demo.service.UserPageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.InputStream;
 import java.util.Map;
 
 /**
@@ -33,22 +45,93 @@ import java.util.Map;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final UserPageService userPageService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
     private final PasswordEncoder passwordEncoder;
+    private final UserTokenVersionRegistry tokenVersionRegistry;
+    private final RefreshTokenManager refreshTokenManager;
 
     /**
-     * Récupère tous les utilisateurs
+     * Récupère une page d'utilisateurs, par ordre croissant d'ID
      * Accessible uniquement aux utilisateurs avec la permission USER_READ
-     * @return La liste des utilisateurs
+     * @param cursor Le curseur renvoyé avec la page précédente
+     * @param size La taille de page
+     * @param username Préfixe du nom d'utilisateur
+     * @param email Préfixe de l'email
+     * @param enabled État du compte
+     * @return La page d'utilisateurs et le curseur de la suivante
      */
     @GetMapping
     @PreAuthorize("hasAuthority('USER_READ')")
-    @Operation(summary = "Récupérer tous les utilisateurs", description = "Liste tous les utilisateurs enregistrés")
+    @Operation(summary = "Récupérer les utilisateurs",
+        description = "Liste les utilisateurs page par page ; passer nextCursor dans 'cursor' pour obtenir la page suivante")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Liste des utilisateurs récupérée avec succès"),
+        @ApiResponse(responseCode = "200", description = "Page d'utilisateurs récupérée avec succès"),
+        @ApiResponse(responseCode = "400", description = "Curseur invalide ou émis pour d'autres filtres"),
         @ApiResponse(responseCode = "403", description = "Accès refusé - Permissions insuffisantes")
     })
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public UserPage getAllUsers(
+        @Parameter(description = "Curseur de la page suivante (absent pour la première page)")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Taille de page (app.users.pageSize par défaut, au plus app.users.maxPageSize)")
+        @RequestParam(required = false) Integer size,
+        @Parameter(description = "Préfixe du nom d'utilisateur")
+        @RequestParam(required = false) String username,
+        @Parameter(description = "Préfixe de l'email")
+        @RequestParam(required = false) String email,
+        @Parameter(description = "État du compte")
+        @RequestParam(required = false) Boolean enabled) {
+        return userPageService.findPage(username, email, enabled, cursor, size);
+    }
+
+    /**
+     * Exporte tous les utilisateurs au format NDJSON (un objet JSON par ligne), sans mot de passe
+     * La réponse est écrite au fil de la lecture en base, hors du thread de la requête,
+     * avec son propre délai maximal (app.users.exportTimeoutMs)
+     * Accessible uniquement aux utilisateurs avec la permission USER_READ
+     * @param request La requête, qui reçoit le délai de la réponse asynchrone
+     * @return Le flux NDJSON des utilisateurs
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('USER_READ')")
+    @Operation(summary = "Exporter les utilisateurs",
+        description = "Renvoie tous les utilisateurs au format NDJSON, par ordre croissant d'ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export en cours d'envoi"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé - Permissions insuffisantes")
+    })
+    public ResponseEntity<StreamingResponseBody> exportUsers(HttpServletRequest request) {
+        request.setAttribute(AsyncRequestConfig.TIMEOUT_ATTRIBUTE, userExportService.timeoutMs());
+        StreamingResponseBody body = userExportService::export;
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+            .body(body);
+    }
+
+    /**
+     * Importe des utilisateurs en masse depuis un fichier CSV, JSON (tableau) ou NDJSON lu en flux
+     * Les lignes invalides ou en doublon sont rejetées individuellement et détaillées dans le rapport
+     * Accessible uniquement aux utilisateurs avec la permission USER_WRITE
+     * @param contentType Le format du fichier
+     * @param body Le contenu du fichier
+     * @return Le rapport de l'import (lignes créées, rejetées, débit)
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/json", "application/x-ndjson"})
+    @PreAuthorize("hasAuthority('USER_WRITE')")
+    @Operation(summary = "Importer des utilisateurs",
+        description = "Crée des utilisateurs par lots depuis un fichier CSV (username,email,password[,roles]), " +
+            "JSON ou NDJSON ; les rôles CSV sont séparés par |")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import terminé, voir le rapport pour les lignes rejetées"),
+        @ApiResponse(responseCode = "400", description = "Fichier illisible ou en-tête CSV incomplet"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé - Permissions insuffisantes")
+    })
+    public ResponseEntity<UserImportReport> importUsers(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        InputStream body) {
+        return ResponseEntity.ok(userImportService.importUsers(body, MediaType.parseMediaType(contentType)));
     }
 
     /**
@@ -93,6 +176,7 @@ public class UserController {
         return userRepository.findById(id)
             .map(user -> {
                 userRepository.delete(user);
+                tokenVersionRegistry.invalidateTokens(user.getId());
                 return ResponseEntity.ok().body("Utilisateur supprimé avec succès");
             })
             .orElse(ResponseEntity.notFound().build());
@@ -156,6 +240,10 @@ public class UserController {
                 user.setPassword(passwordEncoder.encode(passwordChangeRequest.getNewPassword()));
                 userRepository.save(user);
 
+                // Les tokens émis avec l'ancien mot de passe ne sont plus acceptés
+                tokenVersionRegistry.invalidateTokens(user.getId());
+                refreshTokenManager.revokeAllForUser(user.getId());
+
                 return ResponseEntity.ok(Map.of("message", "Mot de passe modifié avec succès"));
             })
             .orElse(ResponseEntity.badRequest().build());
@@ -18,6 +18,11 @@ public class AuthenticationResponse {
      */
     private String token;
 
+    /**
+     * Refresh token opaque permettant d'obtenir un nouveau token JWT sans mot de passe
+     */
+    private String refreshToken;
+
     /**
      * Identifiant de l'utilisateur
      */
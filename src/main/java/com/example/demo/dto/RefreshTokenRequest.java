@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * DTO pour les demandes de renouvellement de token
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenRequest {
+
+    /**
+     * Refresh token opaque obtenu lors de la connexion ou du dernier renouvellement
+     */
+    @NotBlank(message = "Le refresh token ne peut pas être vide")
+    @ToString.Exclude
+    private String refreshToken;
+}
@@ -0,0 +1,75 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour le rapport d'un import en masse d'utilisateurs
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportReport {
+
+    /**
+     * Nombre de lignes lues
+     */
+    private long rowsRead;
+
+    /**
+     * Nombre d'utilisateurs créés
+     */
+    private long imported;
+
+    /**
+     * Nombre de lignes rejetées
+     */
+    private long rejected;
+
+    /**
+     * Durée de l'import en millisecondes
+     */
+    private long durationMs;
+
+    /**
+     * Débit moyen, en lignes lues par seconde
+     */
+    private double rowsPerSecond;
+
+    /**
+     * Erreurs des lignes rejetées, dans l'ordre de leur détection (limitées à app.users.importMaxReportedErrors)
+     */
+    private List<RowError> errors;
+
+    /**
+     * Indique que des erreurs ont été omises du rapport
+     */
+    private boolean errorsTruncated;
+
+    /**
+     * Erreur d'une ligne du fichier importé
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+
+        /**
+         * Numéro de la ligne (CSV) ou de l'objet (JSON), à partir de 1
+         */
+        private long row;
+
+        /**
+         * Nom d'utilisateur de la ligne, s'il a pu être lu
+         */
+        private String username;
+
+        /**
+         * Motif du rejet
+         */
+        private String message;
+    }
+}
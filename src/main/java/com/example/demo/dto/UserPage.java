@@ -0,0 +1,31 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour une page de la liste des utilisateurs (pagination par clé)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPage {
+
+    /**
+     * Les utilisateurs de la page, par ordre croissant d'ID
+     */
+    private List<UserSummary> content;
+
+    /**
+     * Curseur de la page suivante, à passer dans le paramètre "cursor" (null sur la dernière page)
+     */
+    private String nextCursor;
+
+    /**
+     * Taille de page appliquée
+     */
+    private int size;
+}
@@ -0,0 +1,45 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour un utilisateur de la liste paginée
+ * Mêmes champs que l'export : état du compte et noms des rôles, sans mot de passe ni permissions
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSummary {
+
+    /**
+     * Identifiant de l'utilisateur
+     */
+    private Long id;
+
+    /**
+     * Nom d'utilisateur
+     */
+    private String username;
+
+    /**
+     * Adresse email de l'utilisateur
+     */
+    private String email;
+
+    private boolean enabled;
+
+    private boolean accountNonExpired;
+
+    private boolean accountNonLocked;
+
+    private boolean credentialsNonExpired;
+
+    /**
+     * Noms des rôles de l'utilisateur
+     */
+    private List<String> roles;
+}
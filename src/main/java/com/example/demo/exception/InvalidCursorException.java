@@ -0,0 +1,11 @@
+package com.example.demo.exception;
+
+/**
+ * Exception levée lorsqu'un curseur de pagination est illisible ou a été émis pour d'autres filtres
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.exception;
+
+/**
+ * Exception levée lorsqu'un fichier d'import d'utilisateurs ne peut pas être lu
+ * (format non supporté, en-tête CSV incomplet)
+ */
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
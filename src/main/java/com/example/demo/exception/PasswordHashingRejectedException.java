@@ -0,0 +1,12 @@
+package com.example.demo.exception;
+
+/**
+ * Exception levée lorsque l'exécuteur de hachage des mots de passe est saturé
+ * La requête est rejetée immédiatement (503) plutôt que d'occuper un thread en attente
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
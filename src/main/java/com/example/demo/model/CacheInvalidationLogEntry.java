@@ -0,0 +1,51 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entrée du journal des invalidations de cache partagé entre les nœuds
+ * Chaque nœud relit le journal par identifiant croissant et retire de ses caches locaux
+ * les clés modifiées par les autres nœuds
+ */
+@Entity
+@Table(name = "cache_invalidation_log")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationLogEntry {
+
+    /**
+     * Identifiant croissant, utilisé comme position de lecture
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Nom du cache concerné
+     */
+    @Column(nullable = false)
+    private String cacheName;
+
+    /**
+     * Clé à invalider ; null pour vider tout le cache
+     */
+    private String cacheKey;
+
+    /**
+     * Identifiant du nœud à l'origine de l'invalidation (ignorée par ce nœud)
+     */
+    @Column(nullable = false)
+    private String originNode;
+
+    /**
+     * Date d'enregistrement, utilisée pour la purge
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,69 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entité représentant un refresh token
+ * Seule l'empreinte SHA-256 du token est stockée ; chaque utilisation le remplace par un nouveau
+ * token de la même famille, ce qui permet de détecter la réutilisation d'un token volé
+ */
+@Entity
+@Table(name = "refresh_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    /**
+     * Identifiant unique, généré automatiquement
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Empreinte SHA-256 (hexadécimale) du token opaque
+     */
+    @Column(nullable = false, unique = true)
+    private String tokenHash;
+
+    /**
+     * Identifiant de l'utilisateur propriétaire
+     */
+    @Column(nullable = false)
+    private Long userId;
+
+    /**
+     * Famille de rotation : tous les tokens issus d'une même connexion
+     */
+    @Column(nullable = false)
+    private String familyId;
+
+    /**
+     * Date de création
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Date d'expiration
+     */
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Date d'utilisation (null tant que le token n'a pas été échangé)
+     */
+    private Instant usedAt;
+
+    /**
+     * Indique si le token (et sa famille) a été révoqué
+     */
+    @Column(nullable = false)
+    private boolean revoked = false;
+}
@@ -0,0 +1,38 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entité représentant un token JWT révoqué avant son expiration
+ * L'entrée n'est utile que jusqu'à l'expiration du token, après quoi elle est purgée
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    /**
+     * Identifiant du token révoqué (claim "jti")
+     */
+    @Id
+    private String jti;
+
+    /**
+     * Date d'expiration du token (claim "exp")
+     */
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Date de la révocation
+     */
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
@@ -39,9 +39,9 @@ public class Role {
 
     /**
      * Les permissions attribuées à ce rôle
-     * Relation many-to-many avec l'entité Permission
+     * Relation many-to-many avec l'entité Permission, chargée à la demande
      */
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "role_permissions",
         joinColumns = @JoinColumn(name = "role_id"),
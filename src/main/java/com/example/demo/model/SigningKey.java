@@ -0,0 +1,61 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entité représentant une clé de signature des tokens JWT
+ * Les clés sont partagées par tous les nœuds via la base de données et identifiées par leur "kid"
+ */
+@Entity
+@Table(name = "jwt_signing_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SigningKey {
+
+    /**
+     * Identifiant de la clé, repris dans l'en-tête "kid" des tokens
+     */
+    @Id
+    private String kid;
+
+    /**
+     * Algorithme de signature (HS512, RS256, ES256)
+     */
+    @Column(nullable = false)
+    private String algorithm;
+
+    /**
+     * Secret HMAC ou clé privée PKCS#8, encodé en Base64
+     */
+    @Column(nullable = false)
+    private String privateKey;
+
+    /**
+     * Clé publique X.509 encodée en Base64 (algorithmes asymétriques uniquement)
+     */
+    private String publicKey;
+
+    /**
+     * Date à partir de laquelle la clé est utilisée pour signer
+     */
+    @Column(nullable = false)
+    private Instant activatesAt;
+
+    /**
+     * Date à partir de laquelle la clé ne signe plus de nouveaux tokens
+     */
+    @Column(nullable = false)
+    private Instant signsUntil;
+
+    /**
+     * Date à partir de laquelle la clé n'est plus acceptée pour la vérification
+     */
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
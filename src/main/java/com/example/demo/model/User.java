@@ -1,9 +1,14 @@
 package com.example.demo.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -11,19 +16,33 @@ import java.util.Set;
 /**
  * Entité représentant un utilisateur dans le système
  * Utilise JPA pour la persistance en base de données
+ * Les rôles (et leurs permissions) sont chargés à la demande ; le graphe {@link #AUTHORITIES_GRAPH}
+ * les charge avec l'utilisateur en une seule requête
  */
 @Entity
 @Table(name = "users")
+@NamedEntityGraph(
+    name = User.AUTHORITIES_GRAPH,
+    attributeNodes = @NamedAttributeNode(value = "roles", subgraph = "permissions"),
+    subgraphs = @NamedSubgraph(name = "permissions", attributeNodes = @NamedAttributeNode("permissions"))
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
 
     /**
-     * Identifiant unique de l'utilisateur, généré automatiquement
+     * Graphe de chargement d'un utilisateur avec ses rôles et leurs permissions
+     */
+    public static final String AUTHORITIES_GRAPH = "User.authorities";
+
+    /**
+     * Identifiant unique de l'utilisateur, tiré de la séquence users_seq par blocs de 50
+     * (optimiseur pooled) : contrairement à IDENTITY, les insertions peuvent être regroupées en lots JDBC
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -46,9 +65,9 @@ public class User {
 
     /**
      * Les rôles attribués à l'utilisateur
-     * Relation many-to-many avec l'entité Role
+     * Relation many-to-many avec l'entité Role, chargée à la demande
      */
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
@@ -79,4 +98,75 @@ public class User {
      */
     @Column(nullable = false)
     private boolean accountNonExpired = true;
+
+    /**
+     * Nom d'utilisateur tel que lu ou écrit en base pour la dernière fois
+     * Permet d'invalider l'ancienne clé de cache après un renommage
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String persistedUsername;
+
+    /**
+     * Adresse email telle que lue ou écrite en base pour la dernière fois
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String persistedEmail;
+
+    /**
+     * État du compte (activé, verrouillé, expirations) tel que lu ou écrit en base pour la dernière fois
+     * Permet de rendre obsolètes les tokens émis avant un changement d'état
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Integer persistedAccountStatus;
+
+    /**
+     * Mémorise les clés naturelles et l'état du compte synchronisés avec la base
+     */
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberPersistedKeys() {
+        this.persistedUsername = username;
+        this.persistedEmail = email;
+        this.persistedAccountStatus = accountStatus();
+    }
+
+    /**
+     * @return Le nom d'utilisateur connu en base, ou null si l'entité n'a jamais été persistée
+     */
+    public String persistedUsername() {
+        return persistedUsername;
+    }
+
+    /**
+     * @return L'adresse email connue en base, ou null si l'entité n'a jamais été persistée
+     */
+    public String persistedEmail() {
+        return persistedEmail;
+    }
+
+    /**
+     * @return true si l'état du compte a changé depuis sa dernière lecture ou écriture en base
+     *         (false pour une entité qui n'en provient pas)
+     */
+    public boolean accountStatusChanged() {
+        return persistedAccountStatus != null && persistedAccountStatus != accountStatus();
+    }
+
+    private int accountStatus() {
+        return (enabled ? 1 : 0) | (accountNonLocked ? 2 : 0) | (credentialsNonExpired ? 4 : 0)
+            | (accountNonExpired ? 8 : 0);
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.CacheInvalidationLogEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository pour le journal des invalidations de cache
+ */
+@Repository
+public interface CacheInvalidationLogRepository extends JpaRepository<CacheInvalidationLogEntry, Long> {
+
+    /**
+     * Récupère les invalidations enregistrées après une position donnée
+     * @param id La dernière position lue
+     * @return Les entrées suivantes, par identifiant croissant
+     */
+    List<CacheInvalidationLogEntry> findTop1000ByIdGreaterThanOrderByIdAsc(Long id);
+
+    /**
+     * @return L'identifiant le plus élevé du journal, 0 s'il est vide
+     */
+    @Query("select coalesce(max(e.id), 0) from CacheInvalidationLogEntry e")
+    long findMaxId();
+
+    /**
+     * Supprime les entrées plus anciennes que la durée de conservation
+     * @param before La date limite
+     * @return Le nombre d'entrées supprimées
+     */
+    @Transactional
+    long deleteByCreatedAtBefore(Instant before);
+}
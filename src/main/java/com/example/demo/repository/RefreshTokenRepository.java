@@ -0,0 +1,68 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository pour les refresh tokens
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Trouve un refresh token par son empreinte
+     * @param tokenHash L'empreinte SHA-256 du token
+     * @return Un Optional contenant le token s'il existe
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marque un token comme utilisé, uniquement s'il ne l'a pas déjà été
+     * La mise à jour conditionnelle garantit qu'un token ne peut être échangé qu'une seule fois
+     * @param id L'ID du token
+     * @param now L'instant d'utilisation
+     * @return 1 si le token a été consommé, 0 s'il était déjà utilisé ou révoqué
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL AND t.revoked = false")
+    int markUsed(@Param("id") Long id, @Param("now") Instant now);
+
+    /**
+     * Révoque tous les tokens d'une famille (réutilisation détectée ou déconnexion)
+     * @param familyId L'identifiant de la famille
+     * @return Le nombre de tokens révoqués
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    /**
+     * Révoque tous les tokens d'un utilisateur (changement de mot de passe)
+     * @param userId L'ID de l'utilisateur
+     * @return Le nombre de tokens révoqués
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.userId = :userId")
+    int revokeAllForUser(@Param("userId") Long userId);
+
+    /**
+     * Supprime les tokens expirés
+     * @param now L'instant courant
+     * @return Le nombre de tokens supprimés
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
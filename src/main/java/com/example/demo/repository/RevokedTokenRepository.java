@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository pour les tokens révoqués
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Récupère les révocations encore actives
+     * @param now L'instant courant
+     * @return Les tokens révoqués non expirés
+     */
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    /**
+     * Récupère les révocations effectuées depuis un instant donné (synchronisation entre nœuds)
+     * @param since L'instant de la dernière synchronisation
+     * @return Les révocations récentes
+     */
+    List<RevokedToken> findByRevokedAtAfter(Instant since);
+
+    /**
+     * Supprime les révocations de tokens déjà expirés
+     * @param now L'instant courant
+     * @return Le nombre d'entrées supprimées
+     */
+    @Transactional
+    long deleteByExpiresAtBefore(Instant now);
+}
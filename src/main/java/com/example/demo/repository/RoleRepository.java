@@ -2,8 +2,10 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -26,4 +28,11 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
      * @return true si le nom existe, false sinon
      */
     boolean existsByName(String name);
+
+    /**
+     * Charge tous les rôles avec leurs permissions en une seule requête
+     * @return Les rôles, permissions initialisées
+     */
+    @Query("select distinct r from Role r left join fetch r.permissions")
+    List<Role> findAllWithPermissions();
 }
@@ -0,0 +1,31 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository pour les clés de signature JWT
+ */
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+    /**
+     * Récupère les clés encore valides pour la vérification
+     * @param now L'instant courant
+     * @return Les clés non expirées
+     */
+    List<SigningKey> findByExpiresAtAfter(Instant now);
+
+    /**
+     * Supprime les clés expirées
+     * @param now L'instant courant
+     * @return Le nombre de clés supprimées
+     */
+    @Transactional
+    long deleteByExpiresAtBefore(Instant now);
+}
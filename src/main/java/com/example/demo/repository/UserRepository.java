@@ -1,31 +1,68 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.User;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository pour l'entité User
  * Étend JpaRepository pour hériter des méthodes CRUD standard
  * Utilise le cache pour améliorer les performances
+ * Les écritures sont répercutées clé par clé dans les caches par {@link com.example.demo.aop.CacheInvalidationAspect}
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Trouve un utilisateur par son ID
+     * Met en cache le résultat dans "userById", indexé par l'ID sans boxing (voir LongKeyedSpringCache)
+     * Les rôles et permissions sont chargés dans la même requête : l'entité en cache est complète
+     * @param id L'ID de l'utilisateur
+     * @return Un Optional contenant l'utilisateur s'il existe
+     */
+    @Override
+    @EntityGraph(User.AUTHORITIES_GRAPH)
+    @Cacheable(value = "userById", key = "#id", sync = true)
+    Optional<User> findById(Long id);
+
     /**
      * Trouve un utilisateur par son nom d'utilisateur
+     * Non mis en cache : l'authentification utilise les fiches UserSecurityRecord du cache "userByUsername"
+     * Les rôles et permissions sont chargés dans la même requête
      * @param username Le nom d'utilisateur à rechercher
      * @return Un Optional contenant l'utilisateur s'il existe
      */
-    @Cacheable(value = "userByUsername", key = "#username", unless = "#result == null")
+    @EntityGraph(User.AUTHORITIES_GRAPH)
     Optional<User> findByUsername(String username);
 
+    /**
+     * Lit uniquement les colonnes nécessaires à l'authentification, une ligne par rôle de l'utilisateur
+     * Les permissions ne sont pas lues : elles sont déduites des rôles par l'AuthorityRegistry
+     * @param username Le nom d'utilisateur à rechercher
+     * @return Les lignes de l'utilisateur (vide s'il n'existe pas ; rôle null s'il n'a aucun rôle)
+     */
+    @Query("select u.id as id, u.username as username, u.email as email, u.password as password, " +
+        "u.enabled as enabled, u.accountNonExpired as accountNonExpired, " +
+        "u.credentialsNonExpired as credentialsNonExpired, u.accountNonLocked as accountNonLocked, " +
+        "r.id as roleId, r.name as roleName " +
+        "from User u left join u.roles r where u.username = :username")
+    List<AuthenticationRow> findAuthenticationRowsByUsername(@Param("username") String username);
+
     /**
      * Vérifie si un nom d'utilisateur existe déjà
      * @param username Le nom d'utilisateur à vérifier
@@ -41,44 +78,203 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
 
     /**
-     * Recherche un utilisateur par email
+     * Parmi des noms d'utilisateur, retrouve ceux qui existent déjà (vérification d'unicité en masse)
+     * @param usernames Les noms à vérifier
+     * @return Les noms déjà utilisés
+     */
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Parmi des adresses email, retrouve celles qui existent déjà (vérification d'unicité en masse)
+     * @param emails Les adresses à vérifier
+     * @return Les adresses déjà utilisées
+     */
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Recherche un utilisateur par email, avec ses rôles et permissions
      * @param email L'email de l'utilisateur à rechercher
      * @return Un Optional contenant l'utilisateur s'il existe
      */
-    @Cacheable(value = "userByEmail", key = "#email", unless = "#result == null")
+    @EntityGraph(User.AUTHORITIES_GRAPH)
+    @Cacheable(value = "userByEmail", key = "#email", sync = true)
     Optional<User> findByEmail(String email);
 
     /**
-     * Récupère tous les utilisateurs
-     * Met en cache le résultat pour améliorer les performances
-     * @return La liste des utilisateurs
+     * Lit la version des tokens d'un utilisateur
+     * La colonne token_version n'est pas mappée sur l'entité : un enregistrement de l'entité ne peut pas
+     * écraser une incrémentation concurrente
+     * @param id L'ID de l'utilisateur
+     * @return La version, ou null si l'utilisateur n'existe pas
      */
-    @Override
-    @Cacheable(value = "users")
-    List<User> findAll();
+    @Query(value = "select token_version from users where id = :id", nativeQuery = true)
+    Long findTokenVersion(@Param("id") Long id);
 
     /**
-     * Supprime un utilisateur et invalide les caches associés
-     * @param id L'ID de l'utilisateur à supprimer
+     * Incrémente la version des tokens d'un utilisateur (dans la transaction courante s'il y en a une)
+     * @param id L'ID de l'utilisateur
+     * @return Le nombre de lignes modifiées (0 si l'utilisateur n'existe pas)
      */
-    @Override
-    @Caching(evict = {
-        @CacheEvict(value = "users", allEntries = true),
-        @CacheEvict(value = "userByUsername", allEntries = true),
-        @CacheEvict(value = "userByEmail", allEntries = true)
-    })
-    void deleteById(Long id);
+    @Modifying
+    @Transactional
+    @Query(value = "update users set token_version = token_version + 1 where id = :id", nativeQuery = true)
+    int incrementTokenVersion(@Param("id") Long id);
 
     /**
-     * Enregistre un utilisateur et invalide les caches associés
-     * @param user L'utilisateur à enregistrer
-     * @return L'utilisateur enregistré
+     * Pagination par clé (seek) : IDs des utilisateurs suivant un ID donné, dans l'ordre des IDs
+     * Le coût ne dépend que de la taille de la page, pas de sa position
+     * @param afterId L'ID du dernier utilisateur de la page précédente (0 pour la première page)
+     * @param usernamePattern Motif LIKE sur le nom d'utilisateur, échappé par une barre oblique inverse (null pour ne pas filtrer)
+     * @param emailPattern Motif LIKE sur l'email, échappé par une barre oblique inverse (null pour ne pas filtrer)
+     * @param enabled État du compte recherché (null pour ne pas filtrer)
+     * @param limit Le nombre maximal d'IDs
+     * @return Les IDs, par ordre croissant
      */
-    @Override
-    @Caching(evict = {
-        @CacheEvict(value = "users", allEntries = true),
-        @CacheEvict(value = "userByUsername", allEntries = true),
-        @CacheEvict(value = "userByEmail", allEntries = true)
+    @Query("select u.id from User u where u.id > :afterId " +
+        "and (:usernamePattern is null or u.username like :usernamePattern escape '\\') " +
+        "and (:emailPattern is null or u.email like :emailPattern escape '\\') " +
+        "and (:enabled is null or u.enabled = :enabled) " +
+        "order by u.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, @Param("usernamePattern") String usernamePattern,
+                            @Param("emailPattern") String emailPattern, @Param("enabled") Boolean enabled, Limit limit);
+
+    /**
+     * Lit les colonnes affichées dans la liste pour des utilisateurs donnés, une ligne par couple utilisateur/rôle
+     * Seuls les noms des rôles sont lus : ni entité ni permission n'est chargée
+     * @param ids Les IDs des utilisateurs
+     * @return Les lignes, triées par ID (rôle null pour un utilisateur sans rôle)
+     */
+    @Query("select u.id as id, u.username as username, u.email as email, u.enabled as enabled, " +
+        "u.accountNonExpired as accountNonExpired, u.accountNonLocked as accountNonLocked, " +
+        "u.credentialsNonExpired as credentialsNonExpired, r.name as roleName " +
+        "from User u left join u.roles r where u.id in :ids order by u.id")
+    List<ExportRow> findSummaryRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Parcourt les noms d'utilisateur et emails de tous les utilisateurs, sans charger les entités
+     * Le flux doit être consommé puis fermé dans une transaction
+     * @return Les clés naturelles de chaque utilisateur
+     */
+    @Query("select u.username as username, u.email as email from User u")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<NaturalKeys> streamNaturalKeys();
+
+    /**
+     * Compte les utilisateurs par état de compte, en une seule requête d'agrégation
+     * @return Les compteurs (0 si la table est vide)
+     */
+    @Query("select count(u) as total, " +
+        "coalesce(sum(case when u.enabled = true then 1 else 0 end), 0) as enabled, " +
+        "coalesce(sum(case when u.enabled = true and u.accountNonLocked = true then 1 else 0 end), 0) as active, " +
+        "coalesce(sum(case when u.accountNonLocked = false then 1 else 0 end), 0) as locked, " +
+        "coalesce(sum(case when u.accountNonExpired = false then 1 else 0 end), 0) as expired, " +
+        "coalesce(sum(case when u.credentialsNonExpired = false then 1 else 0 end), 0) as credentialsExpired " +
+        "from User u")
+    AccountStateCounts countByAccountState();
+
+    /**
+     * Compte les utilisateurs de chaque rôle (les rôles sans utilisateur sont absents)
+     * @return Le nombre d'utilisateurs par nom de rôle
+     */
+    @Query("select r.name as roleName, count(u) as users from User u join u.roles r group by r.name")
+    List<RoleCount> countByRole();
+
+    /**
+     * Parcourt tous les utilisateurs pour l'export, une ligne par couple utilisateur/rôle, triées par ID
+     * Les lignes sont des projections : aucune entité n'est chargée dans le contexte de persistance.
+     * Le flux doit être consommé puis fermé dans une transaction
+     * @return Les lignes d'export (rôle null pour un utilisateur sans rôle)
+     */
+    @Query("select u.id as id, u.username as username, u.email as email, u.enabled as enabled, " +
+        "u.accountNonExpired as accountNonExpired, u.accountNonLocked as accountNonLocked, " +
+        "u.credentialsNonExpired as credentialsNonExpired, r.name as roleName " +
+        "from User u left join u.roles r order by u.id")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
     })
-    <S extends User> S save(S user);
+    Stream<ExportRow> streamForExport();
+
+    /**
+     * Projection d'une ligne d'authentification : les colonnes de sécurité d'un utilisateur et l'un de ses rôles
+     */
+    interface AuthenticationRow {
+        Long getId();
+
+        String getUsername();
+
+        String getEmail();
+
+        String getPassword();
+
+        boolean isEnabled();
+
+        boolean isAccountNonExpired();
+
+        boolean isCredentialsNonExpired();
+
+        boolean isAccountNonLocked();
+
+        Long getRoleId();
+
+        String getRoleName();
+    }
+
+    /**
+     * Projection d'une ligne d'export : un utilisateur et l'un de ses rôles
+     */
+    interface ExportRow {
+        Long getId();
+
+        String getUsername();
+
+        String getEmail();
+
+        boolean isEnabled();
+
+        boolean isAccountNonExpired();
+
+        boolean isAccountNonLocked();
+
+        boolean isCredentialsNonExpired();
+
+        String getRoleName();
+    }
+
+    /**
+     * Projection des compteurs d'utilisateurs par état de compte
+     */
+    interface AccountStateCounts {
+        long getTotal();
+
+        long getEnabled();
+
+        long getActive();
+
+        long getLocked();
+
+        long getExpired();
+
+        long getCredentialsExpired();
+    }
+
+    /**
+     * Projection du nombre d'utilisateurs d'un rôle
+     */
+    interface RoleCount {
+        String getRoleName();
+
+        long getUsers();
+    }
+
+    /**
+     * Projection sur les clés naturelles d'un utilisateur
+     */
+    interface NaturalKeys {
+        String getUsername();
+
+        String getEmail();
+    }
 }
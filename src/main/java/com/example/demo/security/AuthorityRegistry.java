@@ -0,0 +1,377 @@
+package com.example.demo.security;
+
+import com.example.demo.aop.RemoteCacheInvalidationListener;
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.PermissionRepository;
+import com.example.demo.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registre des autorités connues (tables permissions et roles)
+ * Chaque autorité est identifiée par l'ID de sa ligne en base, utilisé comme position de bit
+ * dans les masques des AuthoritySet : la numérotation est donc identique sur tous les nœuds.
+ * Les instances de GrantedAuthority sont partagées par tous les utilisateurs.
+ * La vue (rôles, permissions et permissions de chaque rôle) est immuable : les lecteurs ne prennent
+ * aucun verrou et n'interrogent pas la base ; elle est remplacée en bloc après chaque écriture
+ * sur les rôles ou permissions, y compris sur un autre nœud (canal {@link #INVALIDATION_CHANNEL}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthorityRegistry implements RemoteCacheInvalidationListener {
+
+    /**
+     * Nom sous lequel les modifications de rôles et permissions sont journalisées pour les autres nœuds
+     */
+    public static final String INVALIDATION_CHANNEL = "authorities";
+
+    /**
+     * Plus grand ID encodable dans un masque ; au-delà, les autorités restent portées par leur nom
+     */
+    static final int MAX_AUTHORITY_ID = 4095;
+
+    static final String ROLE_PREFIX = "ROLE_";
+
+    /**
+     * Délai minimal entre deux rechargements déclenchés par un ID inconnu dans un token
+     */
+    private static final Duration UNKNOWN_ID_RELOAD_INTERVAL = Duration.ofSeconds(5);
+
+    private final PermissionRepository permissionRepository;
+    private final RoleRepository roleRepository;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile Instant lastUnknownIdReload = Instant.EPOCH;
+
+    /**
+     * Charge les autorités au démarrage
+     */
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * Recharge les rôles et permissions depuis la base
+     */
+    public void reload() {
+        reloadLock.lock();
+        try {
+            snapshot = Snapshot.of(permissionRepository.findAll(), roleRepository.findAllWithPermissions());
+            log.debug("Registre des autorités rechargé: {} permission(s), {} rôle(s)",
+                snapshot.permissionIds().size(), snapshot.roleIds().size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Recharge la vue après le commit de la transaction courante (immédiatement hors transaction)
+     */
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    @Override
+    public void onRemoteInvalidation(String cacheName, String key) {
+        if (INVALIDATION_CHANNEL.equals(cacheName)) {
+            reload();
+        }
+    }
+
+    @Override
+    public void onRemoteInvalidationsMissed() {
+        reload();
+    }
+
+    /**
+     * Trouve un rôle par son nom, sans requête
+     * @param name Le nom du rôle (sans préfixe ROLE_)
+     * @return Une copie détachée du rôle et de ses permissions, à rattacher à un utilisateur
+     */
+    public Optional<Role> findRole(String name) {
+        Role role = snapshot.rolesByName().get(name);
+        if (role == null) {
+            return Optional.empty();
+        }
+        Set<Permission> permissions = new HashSet<>();
+        role.getPermissions().forEach(permission ->
+            permissions.add(new Permission(permission.getId(), permission.getName(), permission.getDescription())));
+        return Optional.of(new Role(role.getId(), role.getName(), role.getDescription(), permissions));
+    }
+
+    /**
+     * Calcule les autorités d'un utilisateur (rôles préfixés par ROLE_ et permissions de ces rôles)
+     * Les utilisateurs ayant les mêmes rôles partagent la même instance
+     * @param user L'entité utilisateur avec ses rôles chargés
+     * @return Les autorités sous forme de masques, ou null si un ID dépasse MAX_AUTHORITY_ID
+     */
+    public AuthoritySet authoritiesOf(User user) {
+        return authoritiesOf(user.getRoles());
+    }
+
+    /**
+     * Calcule les autorités correspondant à des rôles ; seuls leurs ID et noms sont lus
+     * (les permissions viennent de la vue, les rôles peuvent donc être de simples projections)
+     * @param roles Les rôles de l'utilisateur
+     * @return Les autorités sous forme de masques, ou null si un ID dépasse MAX_AUTHORITY_ID
+     */
+    public AuthoritySet authoritiesOf(Collection<Role> roles) {
+        Snapshot current = snapshot;
+        AuthoritySet authorities = current.encode(roles);
+        if (authorities == null) {
+            // Rôle ou permission créé(e) après le dernier chargement
+            reload();
+            current = snapshot;
+            authorities = current.encode(roles);
+        }
+        return authorities == null ? null : current.intern(authorities);
+    }
+
+    /**
+     * Reconstruit les autorités à partir des masques portés par un token
+     * Les bits ne correspondant à aucune autorité connue (supprimée depuis l'émission) sont ignorés
+     * @param permissionMask Le masque des permissions encodé (peut être null)
+     * @param roleMask Le masque des rôles encodé (peut être null)
+     * @return Les autorités correspondantes
+     */
+    public AuthoritySet decode(String permissionMask, String roleMask) {
+        long[] permissionBits = AuthoritySet.decodeMask(permissionMask);
+        long[] roleBits = AuthoritySet.decodeMask(roleMask);
+
+        Snapshot current = snapshot;
+        if (!current.knowsAll(permissionBits, roleBits)) {
+            // Autorité créée par un autre nœud depuis le dernier chargement
+            Instant now = Instant.now();
+            if (lastUnknownIdReload.plus(UNKNOWN_ID_RELOAD_INTERVAL).isBefore(now)) {
+                lastUnknownIdReload = now;
+                reload();
+                current = snapshot;
+            }
+        }
+        return new AuthoritySet(current,
+            current.retainKnown(permissionBits, current.permissions()),
+            current.retainKnown(roleBits, current.roles()));
+    }
+
+    /**
+     * Vue immuable des autorités, remplacée en bloc à chaque rechargement
+     * @param permissions Les permissions indexées par ID (null pour un ID inutilisé)
+     * @param roles Les rôles (préfixés par ROLE_) indexés par ID
+     * @param permissionIds ID de chaque permission, par nom d'autorité
+     * @param roleIds ID de chaque rôle, par nom d'autorité (avec préfixe ROLE_)
+     * @param rolePermissions Masque des permissions de chaque rôle, indexé par ID de rôle
+     *                        (null si une permission du rôle n'est pas encodable)
+     * @param rolesByName Les rôles chargés, par nom (sans préfixe), à ne jamais modifier
+     * @param interned Ensembles d'autorités déjà construits, par masques
+     */
+    record Snapshot(GrantedAuthority[] permissions, GrantedAuthority[] roles,
+                    Map<String, Integer> permissionIds, Map<String, Integer> roleIds,
+                    long[][] rolePermissions, Map<String, Role> rolesByName,
+                    Map<Masks, AuthoritySet> interned) {
+
+        /**
+         * Nombre maximal de combinaisons d'autorités partagées (au-delà, les ensembles ne sont plus partagés)
+         */
+        static final int MAX_INTERNED = 10_000;
+
+        static final Snapshot EMPTY = new Snapshot(new GrantedAuthority[0], new GrantedAuthority[0], Map.of(), Map.of(),
+            new long[0][], Map.of(), new ConcurrentHashMap<>());
+
+        static Snapshot of(List<Permission> permissionList, List<Role> roleList) {
+            Map<String, Integer> permissionIds = new HashMap<>();
+            Map<String, Integer> roleIds = new HashMap<>();
+            GrantedAuthority[] permissions = new GrantedAuthority[maxId(permissionList.stream().map(Permission::getId).toList()) + 1];
+            GrantedAuthority[] roles = new GrantedAuthority[maxId(roleList.stream().map(Role::getId).toList()) + 1];
+
+            for (Permission permission : permissionList) {
+                if (permission.getId() <= MAX_AUTHORITY_ID) {
+                    int id = permission.getId().intValue();
+                    permissions[id] = new SimpleGrantedAuthority(permission.getName());
+                    permissionIds.put(permission.getName(), id);
+                }
+            }
+            long[][] rolePermissions = new long[roles.length][];
+            Map<String, Role> rolesByName = new HashMap<>();
+            for (Role role : roleList) {
+                rolesByName.put(role.getName(), role);
+                if (role.getId() <= MAX_AUTHORITY_ID) {
+                    int id = role.getId().intValue();
+                    roles[id] = new SimpleGrantedAuthority(ROLE_PREFIX + role.getName());
+                    roleIds.put(ROLE_PREFIX + role.getName(), id);
+                    rolePermissions[id] = permissionBits(role, permissions);
+                }
+            }
+            return new Snapshot(permissions, roles, Map.copyOf(permissionIds), Map.copyOf(roleIds),
+                rolePermissions, Map.copyOf(rolesByName), new ConcurrentHashMap<>());
+        }
+
+        /**
+         * @return Le masque des permissions du rôle, ou null si l'une d'elles n'est pas encodable
+         */
+        private static long[] permissionBits(Role role, GrantedAuthority[] permissions) {
+            long[] bits = new long[words(permissions.length)];
+            for (Permission permission : role.getPermissions()) {
+                if (!isKnown(permissions, permission.getId(), "", permission.getName())) {
+                    return null;
+                }
+                setBit(bits, permission.getId().intValue());
+            }
+            return bits;
+        }
+
+        /**
+         * @return L'instance partagée ayant les mêmes masques, enregistrée si elle n'existe pas encore
+         */
+        AuthoritySet intern(AuthoritySet authorities) {
+            Masks masks = new Masks(authorities.permissionBits(), authorities.roleBits());
+            AuthoritySet shared = interned.get(masks);
+            if (shared != null) {
+                return shared;
+            }
+            if (interned.size() >= MAX_INTERNED) {
+                return authorities;
+            }
+            shared = interned.putIfAbsent(masks, authorities);
+            return shared != null ? shared : authorities;
+        }
+
+        private static int maxId(List<Long> ids) {
+            return (int) ids.stream().mapToLong(Long::longValue).filter(id -> id <= MAX_AUTHORITY_ID).max().orElse(-1);
+        }
+
+        /**
+         * Les permissions sont celles de la vue (masques précalculés par rôle) : les permissions
+         * chargées avec les rôles de l'utilisateur ne sont pas parcourues
+         * @return Les autorités de ces rôles, ou null si l'un d'eux est inconnu de cette vue
+         */
+        AuthoritySet encode(Collection<Role> userRoles) {
+            long[] permissionBits = new long[words(permissions.length)];
+            long[] roleBits = new long[words(roles.length)];
+            for (Role role : userRoles) {
+                if (!isKnown(roles, role.getId(), ROLE_PREFIX, role.getName())) {
+                    return null;
+                }
+                int id = role.getId().intValue();
+                long[] rolePermissionBits = rolePermissions[id];
+                if (rolePermissionBits == null) {
+                    return null;
+                }
+                setBit(roleBits, id);
+                for (int word = 0; word < rolePermissionBits.length; word++) {
+                    permissionBits[word] |= rolePermissionBits[word];
+                }
+            }
+            return new AuthoritySet(this, permissionBits, roleBits);
+        }
+
+        boolean knowsAll(long[] permissionBits, long[] roleBits) {
+            return retainKnown(permissionBits, permissions) == permissionBits
+                && retainKnown(roleBits, roles) == roleBits;
+        }
+
+        /**
+         * @return Les bits correspondant à une autorité connue (le tableau d'origine s'ils le sont tous)
+         */
+        long[] retainKnown(long[] bits, GrantedAuthority[] authorities) {
+            long[] known = bits;
+            for (int id = AuthoritySet.nextSetBit(bits, 0); id >= 0; id = AuthoritySet.nextSetBit(bits, id + 1)) {
+                if (id >= authorities.length || authorities[id] == null) {
+                    if (known == bits) {
+                        known = bits.clone();
+                    }
+                    known[id >>> 6] &= ~(1L << id);
+                }
+            }
+            return known;
+        }
+
+        private static boolean isKnown(GrantedAuthority[] authorities, Long id, String prefix, String name) {
+            if (id == null || id < 0 || id >= authorities.length || authorities[id.intValue()] == null) {
+                return false;
+            }
+            // Un renommage invalide également la vue
+            String authority = authorities[id.intValue()].getAuthority();
+            return authority.length() == prefix.length() + name.length()
+                && authority.startsWith(prefix)
+                && authority.endsWith(name);
+        }
+
+        private static int words(int bitCount) {
+            return (bitCount + 63) >>> 6;
+        }
+
+        private static void setBit(long[] bits, int id) {
+            bits[id >>> 6] |= 1L << id;
+        }
+    }
+
+    /**
+     * Clé d'internement : masques de permissions et de rôles, comparés par contenu
+     * (les zéros de fin sont ignorés, les tableaux étant dimensionnés sur le plus grand ID connu)
+     */
+    static final class Masks {
+        private final long[] permissionBits;
+        private final long[] roleBits;
+        private final int hash;
+
+        Masks(long[] permissionBits, long[] roleBits) {
+            this.permissionBits = trim(permissionBits);
+            this.roleBits = trim(roleBits);
+            this.hash = 31 * Arrays.hashCode(this.permissionBits) + Arrays.hashCode(this.roleBits);
+        }
+
+        private static long[] trim(long[] bits) {
+            int length = bits.length;
+            while (length > 0 && bits[length - 1] == 0) {
+                length--;
+            }
+            return length == bits.length ? bits : Arrays.copyOf(bits, length);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Masks other
+                && Arrays.equals(permissionBits, other.permissionBits)
+                && Arrays.equals(roleBits, other.roleBits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
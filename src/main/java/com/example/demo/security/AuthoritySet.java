@@ -0,0 +1,157 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.AbstractSet;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Ensemble immuable d'autorités représenté par deux masques de bits (permissions et rôles)
+ * Les éléments sont les instances partagées de l'AuthorityRegistry ; un test d'appartenance
+ * se résume à une recherche de l'ID par nom puis à un test de bit
+ */
+public final class AuthoritySet extends AbstractSet<GrantedAuthority> {
+
+    private static final long[] NO_BITS = new long[0];
+
+    private final AuthorityRegistry.Snapshot snapshot;
+    private final long[] permissionBits;
+    private final long[] roleBits;
+    private final int size;
+
+    AuthoritySet(AuthorityRegistry.Snapshot snapshot, long[] permissionBits, long[] roleBits) {
+        this.snapshot = snapshot;
+        this.permissionBits = permissionBits;
+        this.roleBits = roleBits;
+        this.size = bitCount(permissionBits) + bitCount(roleBits);
+    }
+
+    /**
+     * Vérifie la présence d'une autorité par son nom
+     * @param authority Le nom de l'autorité (permission, ou rôle avec préfixe ROLE_)
+     * @return true si l'autorité fait partie de l'ensemble
+     */
+    public boolean hasAuthority(String authority) {
+        Integer id = snapshot.permissionIds().get(authority);
+        if (id != null && isSet(permissionBits, id)) {
+            return true;
+        }
+        id = snapshot.roleIds().get(authority);
+        return id != null && isSet(roleBits, id);
+    }
+
+    /**
+     * @return Le masque des permissions, encodé pour un claim JWT
+     */
+    public String permissionMask() {
+        return encodeMask(permissionBits);
+    }
+
+    /**
+     * @return Le masque des rôles, encodé pour un claim JWT
+     */
+    public String roleMask() {
+        return encodeMask(roleBits);
+    }
+
+    long[] permissionBits() {
+        return permissionBits;
+    }
+
+    long[] roleBits() {
+        return roleBits;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof GrantedAuthority authority && authority.getAuthority() != null
+            && hasAuthority(authority.getAuthority());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return new Iterator<>() {
+            private boolean roles = false;
+            private int next = advance(0);
+
+            private int advance(int from) {
+                if (!roles) {
+                    int id = nextSetBit(permissionBits, from);
+                    if (id >= 0) {
+                        return id;
+                    }
+                    roles = true;
+                    from = 0;
+                }
+                return nextSetBit(roleBits, from);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public GrantedAuthority next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                GrantedAuthority authority = roles ? snapshot.roles()[next] : snapshot.permissions()[next];
+                next = advance(next + 1);
+                return authority;
+            }
+        };
+    }
+
+    static int nextSetBit(long[] bits, int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) {
+            return -1;
+        }
+        long remaining = bits[word] & (-1L << from);
+        while (true) {
+            if (remaining != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(remaining);
+            }
+            if (++word == bits.length) {
+                return -1;
+            }
+            remaining = bits[word];
+        }
+    }
+
+    /**
+     * Encode un masque en base64url (octets de poids faible en premier, sans zéros inutiles)
+     */
+    static String encodeMask(long[] bits) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(BitSet.valueOf(bits).toByteArray());
+    }
+
+    static long[] decodeMask(String mask) {
+        if (mask == null || mask.isEmpty()) {
+            return NO_BITS;
+        }
+        return BitSet.valueOf(Base64.getUrlDecoder().decode(mask)).toLongArray();
+    }
+
+    private static boolean isSet(long[] bits, int id) {
+        int word = id >>> 6;
+        return word < bits.length && (bits[word] & (1L << id)) != 0;
+    }
+
+    private static int bitCount(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authentification réussie dont les autorités restent l'AuthoritySet de l'utilisateur
+ * UsernamePasswordAuthenticationToken recopie ses autorités dans une liste non modifiable : l'AuthoritySet
+ * serait perdu et AuthoritySetExpressionHandler ne pourrait plus faire de tests de bits.
+ * L'ensemble étant immuable, il est exposé tel quel, sans copie par requête.
+ */
+public class AuthoritySetAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final AuthoritySet authorities;
+
+    /**
+     * @param principal L'utilisateur authentifié
+     * @param authorities Ses autorités
+     */
+    public AuthoritySetAuthenticationToken(UserDetails principal, AuthoritySet authorities) {
+        super(principal, null, List.of());
+        this.authorities = authorities;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && obj instanceof AuthoritySetAuthenticationToken other
+            && authorities.equals(other.authorities);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + authorities.hashCode();
+    }
+}
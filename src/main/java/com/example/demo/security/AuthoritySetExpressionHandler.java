@@ -0,0 +1,160 @@
+package com.example.demo.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Gestionnaire des expressions @PreAuthorize / @PostAuthorize
+ * Lorsque les autorités du principal sont un AuthoritySet, hasAuthority et hasRole deviennent des tests de bits
+ * au lieu de recopier toutes les autorités dans un ensemble de chaînes à chaque évaluation
+ */
+public class AuthoritySetExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+        StandardEvaluationContext context = (StandardEvaluationContext) super.createEvaluationContext(authentication, mi);
+        MethodSecurityExpressionOperations root = (MethodSecurityExpressionOperations) context.getRootObject().getValue();
+        context.setRootObject(new AuthoritySetExpressionRoot(root, getDefaultRolePrefix()));
+        return context;
+    }
+
+    /**
+     * Racine d'évaluation déléguant tout à la racine standard, sauf les tests d'autorités
+     * Les champs publics reproduisent ceux de SecurityExpressionRoot (utilisables dans les expressions)
+     */
+    public static class AuthoritySetExpressionRoot implements MethodSecurityExpressionOperations {
+
+        public final boolean permitAll = true;
+        public final boolean denyAll = false;
+        public final String read = "read";
+        public final String write = "write";
+        public final String create = "create";
+        public final String delete = "delete";
+        public final String admin = "administration";
+
+        private final MethodSecurityExpressionOperations delegate;
+        private final String rolePrefix;
+
+        AuthoritySetExpressionRoot(MethodSecurityExpressionOperations delegate, String rolePrefix) {
+            this.delegate = delegate;
+            this.rolePrefix = rolePrefix == null ? "" : rolePrefix;
+        }
+
+        @Override
+        public boolean hasAuthority(String authority) {
+            return hasAnyAuthority(authority);
+        }
+
+        @Override
+        public boolean hasAnyAuthority(String... authorities) {
+            if (!(getAuthentication().getAuthorities() instanceof AuthoritySet authoritySet)) {
+                return delegate.hasAnyAuthority(authorities);
+            }
+            for (String authority : authorities) {
+                if (authoritySet.hasAuthority(authority)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasRole(String role) {
+            return hasAnyRole(role);
+        }
+
+        @Override
+        public boolean hasAnyRole(String... roles) {
+            if (!(getAuthentication().getAuthorities() instanceof AuthoritySet authoritySet)) {
+                return delegate.hasAnyRole(roles);
+            }
+            for (String role : roles) {
+                String authority = role.startsWith(rolePrefix) ? role : rolePrefix + role;
+                if (authoritySet.hasAuthority(authority)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public Object getPrincipal() {
+            return getAuthentication().getPrincipal();
+        }
+
+        @Override
+        public Authentication getAuthentication() {
+            return delegate.getAuthentication();
+        }
+
+        @Override
+        public boolean permitAll() {
+            return delegate.permitAll();
+        }
+
+        @Override
+        public boolean denyAll() {
+            return delegate.denyAll();
+        }
+
+        @Override
+        public boolean isAnonymous() {
+            return delegate.isAnonymous();
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return delegate.isAuthenticated();
+        }
+
+        @Override
+        public boolean isRememberMe() {
+            return delegate.isRememberMe();
+        }
+
+        @Override
+        public boolean isFullyAuthenticated() {
+            return delegate.isFullyAuthenticated();
+        }
+
+        @Override
+        public boolean hasPermission(Object target, Object permission) {
+            return delegate.hasPermission(target, permission);
+        }
+
+        @Override
+        public boolean hasPermission(Object targetId, String targetType, Object permission) {
+            return delegate.hasPermission(targetId, targetType, permission);
+        }
+
+        @Override
+        public void setFilterObject(Object filterObject) {
+            delegate.setFilterObject(filterObject);
+        }
+
+        @Override
+        public Object getFilterObject() {
+            return delegate.getFilterObject();
+        }
+
+        @Override
+        public void setReturnObject(Object returnObject) {
+            delegate.setReturnObject(returnObject);
+        }
+
+        @Override
+        public Object getReturnObject() {
+            return delegate.getReturnObject();
+        }
+
+        @Override
+        public Object getThis() {
+            return delegate.getThis();
+        }
+    }
+}
@@ -1,38 +1,51 @@
 package com.example.demo.security;
 
-import com.example.demo.dto.LoginRequest;
-import com.example.demo.dto.AuthenticationResponse;
+import com.example.demo.exception.PasswordHashingRejectedException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Filtre pour gérer l'authentification JWT
- * Traite les tentatives de connexion et génère un token JWT en cas de succès
+ * Seul point d'entrée de POST /api/auth/login : traite les tentatives de connexion et génère un token JWT en cas de succès.
+ * La requête et la réponse sont lues et écrites en flux avec l'ObjectMapper de l'application, sans objets intermédiaires.
  */
-@RequiredArgsConstructor
-public class  JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
+@Slf4j
+public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
-    private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RefreshTokenManager refreshTokenManager;
+    private final ObjectMapper objectMapper;
+
+    public JwtAuthenticationFilter(AuthenticationManager authenticationManager,
+                                   JwtUtils jwtUtils,
+                                   RefreshTokenManager refreshTokenManager,
+                                   ObjectMapper objectMapper) {
+        super(authenticationManager);
+        this.jwtUtils = jwtUtils;
+        this.refreshTokenManager = refreshTokenManager;
+        this.objectMapper = objectMapper;
+    }
 
     /**
      * Tente d'authentifier l'utilisateur à partir de la requête
+     * Le corps attendu est {"username": "...", "password": "..."}
      * @param request La requête HTTP
      * @param response La réponse HTTP
      * @return L'objet Authentication en cas de succès
@@ -41,24 +54,51 @@ public class  JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilt
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response)
         throws AuthenticationException {
-        try {
-            // Lecture du corps de la requête pour extraire les identifiants JSON
-            LoginRequest loginRequest = objectMapper.readValue(request.getInputStream(), LoginRequest.class);
+        String username = null;
+        String password = null;
+
+        // Lecture du corps de la requête pour extraire les identifiants JSON
+        try (JsonParser parser = objectMapper.getFactory().createParser(request.getInputStream())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new AuthenticationServiceException("Corps de la demande d'authentification invalide");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("username".equals(field)) {
+                    username = parser.getValueAsString();
+                } else if ("password".equals(field)) {
+                    password = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new AuthenticationServiceException("Échec de l'analyse de la demande d'authentification", e);
+        }
 
-            UsernamePasswordAuthenticationToken authenticationToken =
-                new UsernamePasswordAuthenticationToken(
-                    loginRequest.getUsername(),
-                    loginRequest.getPassword());
+        UsernamePasswordAuthenticationToken authenticationToken =
+            UsernamePasswordAuthenticationToken.unauthenticated(
+                username != null ? username.trim() : "",
+                password != null ? password : "");
 
-            return authenticationManager.authenticate(authenticationToken);
-        } catch (IOException e) {
-            throw new RuntimeException("Échec de l'analyse de la demande d'authentification", e);
+        try {
+            return getAuthenticationManager().authenticate(authenticationToken);
+        } catch (AuthenticationException e) {
+            log.warn("Échec d'authentification pour l'utilisateur: '{}', raison: {}", username, e.getMessage());
+            throw e;
+        } catch (PasswordHashingRejectedException e) {
+            // Saturation : la connexion est refusée sans être comptée comme un échec d'identifiants
+            log.warn("Connexion rejetée pour l'utilisateur: '{}', raison: {}", username, e.getMessage());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+            return null;
         }
     }
 
     /**
      * Appelé en cas d'authentification réussie
-     * Génère un token JWT et l'envoie dans la réponse
+     * Génère un token JWT et l'envoie dans la réponse, à partir du principal déjà chargé
      */
     @Override
     protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response,
@@ -68,21 +108,23 @@ public class  JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilt
         // Récupération de l'utilisateur authentifié
         UserDetailsImpl userDetails = (UserDetailsImpl) authResult.getPrincipal();
 
-        // Génération du token JWT
-        String jwt = jwtUtils.generateJwtToken(authResult);
+        // Génération du token JWT et du refresh token
+        String jwt = jwtUtils.generateJwtToken(userDetails);
+        String refreshToken = refreshTokenManager.issue(userDetails.getId());
 
-        // Création de la réponse
-        AuthenticationResponse authResponse = new AuthenticationResponse(
-            jwt,
-            userDetails.getId(),
-            userDetails.getUsername(),
-            userDetails.getEmail());
+        log.info("Authentification réussie pour l'utilisateur: '{}'", userDetails.getUsername());
 
-        // Configuration de la réponse
+        // Écriture de la réponse (mêmes champs que AuthenticationResponse)
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-
-        // Écriture de la réponse
-        objectMapper.writeValue(response.getOutputStream(), authResponse);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeStringField("token", jwt);
+            generator.writeStringField("refreshToken", refreshToken);
+            generator.writeNumberField("id", userDetails.getId());
+            generator.writeStringField("username", userDetails.getUsername());
+            generator.writeStringField("email", userDetails.getEmail());
+            generator.writeEndObject();
+        }
     }
 
     /**
@@ -94,16 +136,22 @@ public class  JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilt
                                               AuthenticationException failed)
         throws IOException, ServletException {
 
-        // Configuration de la réponse
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-
-        // Création du message d'erreur
-        Map<String, Object> errorDetails = new HashMap<>();
-        errorDetails.put("message", "Authentification échouée: " + failed.getMessage());
-        errorDetails.put("status", HttpServletResponse.SC_UNAUTHORIZED);
+        writeError(response, HttpServletResponse.SC_UNAUTHORIZED, "Authentification échouée: " + failed.getMessage());
+    }
 
-        // Écriture de la réponse
-        objectMapper.writeValue(response.getOutputStream(), errorDetails);
+    /**
+     * Écrit une réponse d'erreur {"message": ..., "status": ...}
+     */
+    private void writeError(HttpServletResponse response, int status, String message) {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeStringField("message", message);
+            generator.writeNumberField("status", status);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            log.debug("Impossible d'écrire la réponse d'erreur: {}", e.getMessage());
+        }
     }
 }
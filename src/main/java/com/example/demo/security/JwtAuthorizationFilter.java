@@ -1,12 +1,14 @@
 package com.example.demo.security;
 
 import com.example.demo.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -29,6 +31,13 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
     private final UserDetailsServiceImpl userDetailsService;
 
+    /**
+     * Si activé, l'authentification est construite à partir des claims signés du token
+     * sans recharger l'utilisateur depuis la base de données
+     */
+    @Value("${app.jwtClaimsOnlyAuthorization:false}")
+    private boolean claimsOnlyAuthorization;
+
     /**
      * Filtre chaque requête pour vérifier et valider le token JWT
      * Met à jour le contexte de sécurité si le token est valide
@@ -40,18 +49,25 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
             // Extraction du token JWT de la requête
             String jwt = parseJwt(request);
 
-            // Vérification de la validité du token
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+            // Vérification du token en une seule analyse (signature + expiration)
+            Claims claims = jwt != null ? jwtUtils.verifyJwtToken(jwt).orElse(null) : null;
+
+            if (claims != null) {
                 // Extraction du nom d'utilisateur du token
-                String username = jwtUtils.getUsernameFromJwtToken(jwt);
+                String username = claims.getSubject();
 
                 // Chargement des détails de l'utilisateur
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = loadUserDetails(username, claims);
+                if (userDetails == null) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
 
-                // Création de l'objet d'authentification
+                // Création de l'objet d'authentification ; un AuthoritySet est conservé tel quel (tests de bits)
                 UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                    userDetails.getAuthorities() instanceof AuthoritySet authorities
+                        ? new AuthoritySetAuthenticationToken(userDetails, authorities)
+                        : new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
                 // Ajout des détails de la requête
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -67,6 +83,24 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Charge les détails de l'utilisateur, depuis les claims en mode "claims uniquement"
+     * ou depuis la base de données sinon
+     * @param username Le nom d'utilisateur porté par le token
+     * @param claims Les claims vérifiés
+     * @return Les détails de l'utilisateur, ou null si le token est obsolète
+     */
+    private UserDetails loadUserDetails(String username, Claims claims) {
+        if (claimsOnlyAuthorization) {
+            UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+            if (userDetails != null || claims.get(JwtUtils.USER_ID_CLAIM) != null) {
+                return userDetails;
+            }
+            // Token émis avant l'ajout des claims nécessaires : repli sur la base de données
+        }
+        return userDetailsService.loadUserByUsername(username);
+    }
+
     /**
      * Extrait le token JWT de l'en-tête Authorization
      * @param request La requête HTTP
@@ -0,0 +1,263 @@
+package com.example.demo.security;
+
+import com.example.demo.model.SigningKey;
+import com.example.demo.repository.SigningKeyRepository;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Trousseau des clés de signature JWT, persisté en base de données
+ * Tous les nœuds partagent les mêmes clés : un token émis par une instance est vérifiable par les autres.
+ * Les clés tournent périodiquement avec une période de recouvrement : la clé suivante est publiée
+ * avant d'être utilisée, et l'ancienne reste acceptée tant que des tokens signés par elle peuvent être valides.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtKeyRing {
+
+    /**
+     * Délai minimal entre deux rechargements déclenchés par un "kid" inconnu
+     */
+    private static final Duration UNKNOWN_KID_RELOAD_INTERVAL = Duration.ofSeconds(5);
+
+    /**
+     * Algorithmes acceptés pour les nouvelles clés
+     */
+    private static final Set<SignatureAlgorithm> SUPPORTED_ALGORITHMS =
+        Set.of(SignatureAlgorithm.HS512, SignatureAlgorithm.RS256, SignatureAlgorithm.ES256);
+
+    private final SigningKeyRepository signingKeyRepository;
+
+    /**
+     * Algorithme utilisé pour les nouvelles clés (HS512, RS256 ou ES256)
+     */
+    @Value("${app.jwtAlgorithm:HS512}")
+    private String jwtAlgorithm;
+
+    /**
+     * Durée pendant laquelle une clé signe de nouveaux tokens
+     */
+    @Value("${app.jwtKeyRotationMs:604800000}") // 7 jours par défaut
+    private long jwtKeyRotationMs;
+
+    /**
+     * Durée de validité des tokens, utilisée pour garder les anciennes clés vérifiables
+     */
+    @Value("${app.jwtExpirationMs:900000}")
+    private long jwtExpirationMs;
+
+    /**
+     * Intervalle de rechargement des clés depuis la base
+     */
+    @Value("${app.jwtKeyRefreshMs:60000}")
+    private long jwtKeyRefreshMs;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile KeyRingState state = KeyRingState.EMPTY;
+    private volatile Instant lastUnknownKidReload = Instant.EPOCH;
+
+    /**
+     * Charge les clés au démarrage et en crée une si nécessaire
+     */
+    @PostConstruct
+    public void init() {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(jwtAlgorithm);
+        if (!SUPPORTED_ALGORITHMS.contains(algorithm)) {
+            throw new IllegalStateException("Algorithme JWT non supporté: " + jwtAlgorithm);
+        }
+        refresh();
+    }
+
+    /**
+     * Recharge périodiquement les clés depuis la base, publie la clé suivante
+     * à l'approche d'une rotation et purge les clés expirées
+     */
+    @Scheduled(fixedDelayString = "${app.jwtKeyRefreshMs:60000}", initialDelayString = "${app.jwtKeyRefreshMs:60000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            Instant now = Instant.now();
+            List<SigningKey> keys = signingKeyRepository.findByExpiresAtAfter(now);
+
+            SigningKey latest = keys.stream()
+                .max(Comparator.comparing(SigningKey::getActivatesAt).thenComparing(SigningKey::getKid))
+                .orElse(null);
+
+            // Publication anticipée de la clé suivante pour que tous les nœuds la connaissent avant qu'elle signe
+            Instant publishBefore = now.plusMillis(2 * jwtKeyRefreshMs);
+            if (latest == null || latest.getSignsUntil().isBefore(publishBefore)) {
+                Instant activatesAt = latest == null || latest.getSignsUntil().isBefore(now) ? now : latest.getSignsUntil();
+                SigningKey created = signingKeyRepository.save(generateKey(activatesAt));
+                log.info("Nouvelle clé de signature JWT {} ({}) active à partir de {}",
+                    created.getKid(), created.getAlgorithm(), created.getActivatesAt());
+                keys = signingKeyRepository.findByExpiresAtAfter(now);
+            }
+
+            state = KeyRingState.of(keys, now);
+
+            long purged = signingKeyRepository.deleteByExpiresAtBefore(now);
+            if (purged > 0) {
+                log.info("{} clé(s) de signature JWT expirée(s) supprimée(s)", purged);
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * @return La clé utilisée pour signer les nouveaux tokens
+     */
+    public ActiveKey signingKey() {
+        KeyRingState current = state;
+        if (current.signing() == null || !current.signing().signsUntil().isAfter(Instant.now())) {
+            refresh();
+            current = state;
+        }
+        return current.signing();
+    }
+
+    /**
+     * Résout la clé de vérification correspondant à un "kid"
+     * Un "kid" inconnu déclenche un rechargement (limité) pour prendre en compte les clés créées par d'autres nœuds
+     * @param kid L'identifiant de la clé
+     * @return La clé de vérification ou null si elle est inconnue
+     */
+    public Key verificationKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        Key key = state.verificationKeys().get(kid);
+        if (key == null) {
+            Instant now = Instant.now();
+            if (lastUnknownKidReload.plus(UNKNOWN_KID_RELOAD_INTERVAL).isBefore(now)) {
+                lastUnknownKidReload = now;
+                refresh();
+                key = state.verificationKeys().get(kid);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * @return Les clés publiques actuellement acceptées, indexées par "kid" (vide pour HMAC)
+     */
+    public Map<String, PublicKey> publicKeys() {
+        return state.publicKeys();
+    }
+
+    /**
+     * Génère une nouvelle clé pour l'algorithme configuré
+     */
+    private SigningKey generateKey(Instant activatesAt) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(jwtAlgorithm);
+        Base64.Encoder encoder = Base64.getEncoder();
+
+        SigningKey signingKey = new SigningKey();
+        signingKey.setKid(UUID.randomUUID().toString());
+        signingKey.setAlgorithm(algorithm.getValue());
+        if (algorithm.isHmac()) {
+            signingKey.setPrivateKey(encoder.encodeToString(Keys.secretKeyFor(algorithm).getEncoded()));
+        } else {
+            KeyPair keyPair = Keys.keyPairFor(algorithm);
+            signingKey.setPrivateKey(encoder.encodeToString(keyPair.getPrivate().getEncoded()));
+            signingKey.setPublicKey(encoder.encodeToString(keyPair.getPublic().getEncoded()));
+        }
+        signingKey.setActivatesAt(activatesAt);
+        signingKey.setSignsUntil(activatesAt.plusMillis(jwtKeyRotationMs));
+        signingKey.setExpiresAt(signingKey.getSignsUntil().plusMillis(jwtExpirationMs));
+        return signingKey;
+    }
+
+    /**
+     * Clé de signature active
+     * @param kid L'identifiant de la clé
+     * @param algorithm L'algorithme de signature
+     * @param key Le secret HMAC ou la clé privée
+     * @param signsUntil Fin de la période de signature
+     */
+    public record ActiveKey(String kid, SignatureAlgorithm algorithm, Key key, Instant signsUntil) {
+    }
+
+    /**
+     * Vue immuable du trousseau, remplacée en bloc à chaque rechargement
+     */
+    private record KeyRingState(ActiveKey signing, Map<String, Key> verificationKeys,
+                                Map<String, PublicKey> publicKeys) {
+
+        static final KeyRingState EMPTY = new KeyRingState(null, Map.of(), Map.of());
+
+        static KeyRingState of(List<SigningKey> keys, Instant now) {
+            Map<String, Key> verificationKeys = new HashMap<>();
+            Map<String, PublicKey> publicKeys = new HashMap<>();
+            ActiveKey signing = null;
+            Instant signingActivation = null;
+
+            for (SigningKey signingKey : keys) {
+                SignatureAlgorithm algorithm = SignatureAlgorithm.forName(signingKey.getAlgorithm());
+                try {
+                    Key privateKey = decodePrivateKey(algorithm, signingKey.getPrivateKey());
+                    if (algorithm.isHmac()) {
+                        verificationKeys.put(signingKey.getKid(), privateKey);
+                    } else {
+                        PublicKey publicKey = decodePublicKey(algorithm, signingKey.getPublicKey());
+                        verificationKeys.put(signingKey.getKid(), publicKey);
+                        publicKeys.put(signingKey.getKid(), publicKey);
+                    }
+
+                    boolean active = !signingKey.getActivatesAt().isAfter(now) && signingKey.getSignsUntil().isAfter(now);
+                    if (active && (signingActivation == null || signingKey.getActivatesAt().isAfter(signingActivation))) {
+                        signing = new ActiveKey(signingKey.getKid(), algorithm, privateKey, signingKey.getSignsUntil());
+                        signingActivation = signingKey.getActivatesAt();
+                    }
+                } catch (GeneralSecurityException e) {
+                    log.error("Clé de signature JWT {} illisible: {}", signingKey.getKid(), e.getMessage());
+                }
+            }
+
+            return new KeyRingState(signing, Map.copyOf(verificationKeys), Map.copyOf(publicKeys));
+        }
+
+        private static Key decodePrivateKey(SignatureAlgorithm algorithm, String encoded) throws GeneralSecurityException {
+            byte[] bytes = Base64.getDecoder().decode(encoded);
+            if (algorithm.isHmac()) {
+                return Keys.hmacShaKeyFor(bytes);
+            }
+            return keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(bytes));
+        }
+
+        private static PublicKey decodePublicKey(SignatureAlgorithm algorithm, String encoded) throws GeneralSecurityException {
+            byte[] bytes = Base64.getDecoder().decode(encoded);
+            return keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(bytes));
+        }
+
+        private static KeyFactory keyFactory(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+            return KeyFactory.getInstance(algorithm.isRsa() ? "RSA" : "EC");
+        }
+    }
+}
@@ -1,49 +1,85 @@
 package com.example.demo.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Classe utilitaire pour la génération et validation de tokens JWT
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtUtils {
 
     /**
-     * Clé secrète pour signer les tokens (à définir dans application.properties)
+     * Noms des claims ajoutés aux tokens
      */
-    @Value("${app.jwtSecret:defaultSecretKeyForDevelopmentEnvironmentOnly}")
-    private String jwtSecret;
+    public static final String AUTHORITIES_CLAIM = "authorities";
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String TOKEN_VERSION_CLAIM = "tokenVersion";
+    public static final String PERMISSION_MASK_CLAIM = "pmask";
+    public static final String ROLE_MASK_CLAIM = "rmask";
+
+    private final UserTokenVersionRegistry tokenVersionRegistry;
+    private final JwtKeyRing keyRing;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final AuthorityRegistry authorityRegistry;
 
     /**
      * Durée de validité du token en ms (à définir dans application.properties)
      */
-    @Value("${app.jwtExpirationMs:86400000}") // 24 heures par défaut
+    @Value("${app.jwtExpirationMs:900000}") // 15 minutes par défaut
     private int jwtExpirationMs;
 
-    private Key key;
+    /**
+     * Nombre maximal de tokens vérifiés conservés en cache (0 pour désactiver)
+     */
+    @Value("${app.jwtVerifiedCacheSize:10000}")
+    private int jwtVerifiedCacheSize;
 
     /**
-     * Initialise la clé de signature à partir du secret
+     * Parseur réutilisé pour toutes les vérifications (thread-safe une fois construit)
+     */
+    private JwtParser jwtParser;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * Initialise le parseur : la clé de vérification est résolue à partir de l'en-tête "kid" du token
      */
     @PostConstruct
     public void init() {
-        //this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        this.key = Keys.secretKeyFor(SignatureAlgorithm.HS512);
-
+        this.jwtParser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                // jjwt 0.11 déclare ce paramètre avec le type brut JwsHeader : JwsHeader<?> ne serait pas une redéfinition
+                @Override
+                @SuppressWarnings("rawtypes")
+                public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    Key key = keyRing.verificationKey(header.getKeyId());
+                    if (key == null) {
+                        throw new SignatureException("Clé de signature inconnue: " + header.getKeyId());
+                    }
+                    return key;
+                }
+            })
+            .build();
+        this.verifiedTokenCache = new VerifiedTokenCache(jwtVerifiedCacheSize);
     }
 
     /**
@@ -52,19 +88,39 @@ public class JwtUtils {
      * @return Le token JWT généré
      */
     public String generateJwtToken(Authentication authentication) {
-        UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+        return generateJwtToken((UserDetailsImpl) authentication.getPrincipal());
+    }
 
-        // Récupération des autorités (roles et permissions)
-        String authorities = userPrincipal.getAuthorities().stream()
-            .map(GrantedAuthority::getAuthority)
-            .collect(Collectors.joining(","));
+    /**
+     * Génère un token JWT pour un utilisateur déjà chargé (renouvellement par refresh token)
+     * @param userPrincipal Les détails de l'utilisateur
+     * @return Le token JWT généré
+     */
+    public String generateJwtToken(UserDetailsImpl userPrincipal) {
+        JwtKeyRing.ActiveKey signingKey = keyRing.signingKey();
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+            .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+            .setId(UUID.randomUUID().toString())
             .setSubject(userPrincipal.getUsername())
-            .claim("authorities", authorities) // Ajoute les autorités au token
+            .claim(USER_ID_CLAIM, userPrincipal.getId())
+            .claim(TOKEN_VERSION_CLAIM, tokenVersionRegistry.currentVersion(userPrincipal.getId()));
+
+        // Ajoute les autorités au token : masques de bits si possible, sinon la liste des noms
+        if (userPrincipal.getAuthorities() instanceof AuthoritySet authorities) {
+            builder.claim(PERMISSION_MASK_CLAIM, authorities.permissionMask())
+                .claim(ROLE_MASK_CLAIM, authorities.roleMask());
+        } else {
+            String authorities = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+            builder.claim(AUTHORITIES_CLAIM, authorities);
+        }
+
+        return builder
             .setIssuedAt(new Date())
             .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-            .signWith(key, SignatureAlgorithm.HS512)
+            .signWith(signingKey.key(), signingKey.algorithm())
             .compact();
     }
 
@@ -74,12 +130,7 @@ public class JwtUtils {
      * @return Le nom d'utilisateur extrait
      */
     public String getUsernameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(key)
-            .build()
-            .parseClaimsJws(token)
-            .getBody()
-            .getSubject();
+        return parseClaims(token).getSubject();
     }
 
     /**
@@ -88,9 +139,20 @@ public class JwtUtils {
      * @return true si le token est valide, false sinon
      */
     public boolean validateJwtToken(String token) {
+        return verifyJwtToken(token).isPresent();
+    }
+
+    /**
+     * Vérifie un token JWT en une seule analyse et retourne ses claims
+     * Les tokens déjà vérifiés sont servis depuis le cache jusqu'à leur expiration
+     * @param token Le token JWT à vérifier
+     * @return Les claims du token s'il est valide, Optional.empty() sinon
+     */
+    public Optional<Claims> verifyJwtToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
+            return Optional.of(parseClaims(token));
+        } catch (RevokedJwtException e) {
+            log.warn("JWT token is revoked: {}", e.getMessage());
         } catch (SignatureException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -102,6 +164,90 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Révoque un token valide jusqu'à son expiration
+     * @param token Le token JWT à révoquer
+     * @return true si le token a été révoqué, false s'il était invalide ou ne porte pas d'identifiant
+     */
+    public boolean revokeJwtToken(String token) {
+        Optional<Claims> claims = verifyJwtToken(token);
+        if (claims.isEmpty() || claims.get().getId() == null) {
+            return false;
+        }
+        revocationRegistry.revoke(claims.get().getId(), claims.get().getExpiration());
+        return true;
+    }
+
+    /**
+     * Construit les détails de l'utilisateur uniquement à partir des claims signés, sans accès à la base
+     * Les indicateurs du compte sont considérés comme valides : toute désactivation, tout verrouillage ou
+     * toute expiration incrémente la version des tokens de l'utilisateur, ce qui rend le token obsolète
+     * @param claims Les claims d'un token vérifié
+     * @return Les détails de l'utilisateur, ou null si le token ne porte pas les claims nécessaires
+     *         ou s'il a été rendu obsolète (changement de mot de passe ou d'état du compte, suppression...)
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        Long tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Long.class);
+        if (userId == null || tokenVersion == null) {
+            return null;
+        }
+        if (!tokenVersionRegistry.isCurrent(userId, tokenVersion)) {
+            log.warn("Token obsolète pour l'utilisateur {} (version {})", claims.getSubject(), tokenVersion);
+            return null;
+        }
+
+        Collection<? extends GrantedAuthority> grantedAuthorities;
+        String permissionMask = claims.get(PERMISSION_MASK_CLAIM, String.class);
+        String roleMask = claims.get(ROLE_MASK_CLAIM, String.class);
+        if (permissionMask != null || roleMask != null) {
+            grantedAuthorities = authorityRegistry.decode(permissionMask, roleMask);
+        } else {
+            // Tokens portant la liste des noms d'autorités
+            String authorities = claims.get(AUTHORITIES_CLAIM, String.class);
+            grantedAuthorities = authorities == null || authorities.isEmpty()
+                ? List.of()
+                : AuthorityUtils.commaSeparatedStringToAuthorityList(authorities);
+        }
+
+        return new UserDetailsImpl(
+            userId,
+            claims.getSubject(),
+            null,
+            null,
+            true,
+            true,
+            true,
+            true,
+            grantedAuthorities);
+    }
+
+    /**
+     * Analyse et vérifie la signature d'un token, en passant d'abord par le cache
+     * @param token Le token JWT
+     * @return Les claims vérifiés
+     * @throws JwtException Si le token est invalide ou expiré
+     */
+    private Claims parseClaims(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        }
+
+        long now = System.currentTimeMillis();
+        VerifiedTokenCache.TokenDigest digest = verifiedTokenCache.digest(token);
+        Claims claims = verifiedTokenCache.get(digest, now);
+        if (claims == null) {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            verifiedTokenCache.put(digest, claims, now);
+        }
+
+        // La révocation est vérifiée à chaque présentation, y compris pour les tokens en cache
+        if (revocationRegistry.isRevoked(claims.getId())) {
+            throw new RevokedJwtException("Token révoqué: " + claims.getId());
+        }
+        return claims;
     }
 }
@@ -0,0 +1,146 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.InvalidRefreshTokenException;
+import com.example.demo.model.RefreshToken;
+import com.example.demo.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Gestion des refresh tokens opaques et rotatifs
+ * Un refresh token permet d'obtenir un nouveau token d'accès sans revérifier le mot de passe (BCrypt).
+ * Chaque échange consomme le token et en émet un nouveau dans la même famille ; la présentation
+ * d'un token déjà consommé révoque toute la famille.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenManager {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /**
+     * Durée de validité des refresh tokens en ms
+     */
+    @Value("${app.refreshTokenExpirationMs:1209600000}") // 14 jours par défaut
+    private long refreshTokenExpirationMs;
+
+    /**
+     * Émet un refresh token pour une nouvelle connexion
+     * @param userId L'ID de l'utilisateur
+     * @return Le token opaque (jamais stocké en clair)
+     */
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Échange un refresh token contre un nouveau token de la même famille
+     * @param rawToken Le token présenté par le client
+     * @return L'utilisateur concerné et le nouveau refresh token
+     * @throws InvalidRefreshTokenException Si le token est inconnu, expiré, révoqué ou déjà utilisé
+     */
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+            .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token invalide"));
+
+        Instant now = Instant.now();
+        if (token.isRevoked()) {
+            throw new InvalidRefreshTokenException("Refresh token révoqué");
+        }
+        if (!token.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException("Refresh token expiré");
+        }
+
+        // Consommation atomique : un second échange du même token est une réutilisation
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            log.warn("Réutilisation d'un refresh token détectée pour l'utilisateur {} : famille {} révoquée",
+                token.getUserId(), token.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token déjà utilisé");
+        }
+
+        return new Rotation(token.getUserId(), issue(token.getUserId(), token.getFamilyId()));
+    }
+
+    /**
+     * Révoque la famille d'un refresh token (déconnexion)
+     * @param rawToken Le token présenté par le client
+     */
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+            .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    /**
+     * Révoque tous les refresh tokens d'un utilisateur
+     * @param userId L'ID de l'utilisateur
+     */
+    public void revokeAllForUser(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllForUser(userId);
+        log.debug("{} refresh token(s) révoqué(s) pour l'utilisateur {}", revoked, userId);
+    }
+
+    /**
+     * Supprime périodiquement les refresh tokens expirés
+     */
+    @Scheduled(fixedDelayString = "${app.refreshTokenPurgeMs:3600000}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("{} refresh token(s) expiré(s) supprimé(s)", purged);
+        }
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Instant now = Instant.now();
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(rawToken));
+        token.setUserId(userId);
+        token.setFamilyId(familyId);
+        token.setCreatedAt(now);
+        token.setExpiresAt(now.plusMillis(refreshTokenExpirationMs));
+        refreshTokenRepository.save(token);
+
+        return rawToken;
+    }
+
+    /**
+     * Empreinte SHA-256 du token : le token étant aléatoire sur 256 bits, aucun sel n'est nécessaire
+     */
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    /**
+     * Résultat d'un échange de refresh token
+     * @param userId L'ID de l'utilisateur
+     * @param refreshToken Le nouveau refresh token
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Exception levée lorsqu'un token valide a été révoqué avant son expiration
+ */
+public class RevokedJwtException extends JwtException {
+
+    public RevokedJwtException(String message) {
+        super(message);
+    }
+}
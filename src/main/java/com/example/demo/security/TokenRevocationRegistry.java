@@ -0,0 +1,152 @@
+package com.example.demo.security;
+
+import com.example.demo.model.RevokedToken;
+import com.example.demo.repository.RevokedTokenRepository;
+import com.example.demo.util.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Liste de révocation des tokens JWT
+ * Les révocations sont persistées en base et chargées en mémoire dans un filtre de Bloom
+ * doublé d'un ensemble exact : le cas courant (token non révoqué) se résout en quelques
+ * sondages du filtre, sans allocation ni accès à la base.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationRegistry {
+
+    /**
+     * Recouvrement appliqué lors de la synchronisation pour ne pas manquer
+     * les révocations enregistrées par d'autres nœuds pendant la lecture précédente
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Nombre de révocations simultanées pour lequel le filtre de Bloom est dimensionné
+     */
+    @Value("${app.jwtRevocationBloomCapacity:100000}")
+    private long bloomCapacity;
+
+    /**
+     * Révocations actives : jti -> expiration du token (epoch ms)
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile BloomFilter bloomFilter;
+    private volatile long bloomFilterCapacity;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    /**
+     * Charge les révocations actives au démarrage
+     */
+    @PostConstruct
+    public void init() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findByExpiresAtAfter(now)
+            .forEach(token -> revoked.put(token.getJti(), token.getExpiresAt().toEpochMilli()));
+        lastSync = now;
+        rebuildBloomFilter();
+
+        Gauge.builder("jwt.revocations.active", revoked, Map::size)
+            .description("Nombre de tokens révoqués non encore expirés")
+            .register(meterRegistry);
+        Gauge.builder("jwt.revocations.bloom.fpp", this, registry -> registry.bloomFilter.expectedFalsePositiveRate())
+            .description("Taux de faux positifs estimé du filtre de Bloom des révocations")
+            .register(meterRegistry);
+
+        log.info("{} révocation(s) de token chargée(s)", revoked.size());
+    }
+
+    /**
+     * Indique si un token a été révoqué
+     * @param jti L'identifiant du token (peut être null pour les anciens tokens)
+     * @return true si le token est révoqué
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Révoque un token jusqu'à son expiration
+     * @param jti L'identifiant du token
+     * @param expiration La date d'expiration du token
+     */
+    public void revoke(String jti, Date expiration) {
+        Instant expiresAt = expiration.toInstant();
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt, Instant.now()));
+        add(jti, expiresAt.toEpochMilli());
+        log.debug("Token {} révoqué jusqu'à {}", jti, expiresAt);
+    }
+
+    /**
+     * Récupère les révocations effectuées par les autres nœuds et purge les entrées expirées
+     */
+    @Scheduled(fixedDelayString = "${app.jwtRevocationRefreshMs:10000}")
+    public void synchronize() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findByRevokedAtAfter(lastSync.minus(SYNC_OVERLAP)).forEach(token -> {
+            if (!revoked.containsKey(token.getJti())) {
+                add(token.getJti(), token.getExpiresAt().toEpochMilli());
+            }
+        });
+        lastSync = now;
+
+        long nowMillis = now.toEpochMilli();
+        if (revoked.values().removeIf(expiresAt -> expiresAt <= nowMillis)) {
+            // Un filtre de Bloom ne permet pas de retirer d'éléments : il est reconstruit
+            rebuildBloomFilter();
+        }
+        revokedTokenRepository.deleteByExpiresAtBefore(now);
+    }
+
+    private void add(String jti, long expiresAtMillis) {
+        writeLock.lock();
+        try {
+            revoked.put(jti, expiresAtMillis);
+            bloomFilter.put(jti);
+            if (revoked.size() > bloomFilterCapacity) {
+                rebuildBloomFilter();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void rebuildBloomFilter() {
+        writeLock.lock();
+        try {
+            long capacity = Math.max(bloomCapacity, 2L * revoked.size());
+            BloomFilter rebuilt = new BloomFilter(capacity, BLOOM_FALSE_POSITIVE_RATE);
+            revoked.keySet().forEach(rebuilt::put);
+            bloomFilter = rebuilt;
+            bloomFilterCapacity = capacity;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
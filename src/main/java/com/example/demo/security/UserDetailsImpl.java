@@ -68,6 +68,30 @@ public class UserDetailsImpl implements UserDetails {
             authorities);
     }
 
+    /**
+     * Crée un UserDetailsImpl dont les autorités sont encodées sous forme de masques de bits
+     * @param user L'entité utilisateur
+     * @param authorityRegistry Le registre des autorités
+     * @return L'objet UserDetailsImpl correspondant
+     */
+    public static UserDetailsImpl build(User user, AuthorityRegistry authorityRegistry) {
+        AuthoritySet authorities = authorityRegistry.authoritiesOf(user);
+        if (authorities == null) {
+            return build(user);
+        }
+
+        return new UserDetailsImpl(
+            user.getId(),
+            user.getUsername(),
+            user.getEmail(),
+            user.getPassword(),
+            user.isEnabled(),
+            user.isAccountNonExpired(),
+            user.isCredentialsNonExpired(),
+            user.isAccountNonLocked(),
+            authorities);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,239 @@
+package com.example.demo.security;
+
+import com.example.demo.aop.RemoteCacheInvalidationListener;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.util.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Filtres de Bloom des noms d'utilisateur et emails existants
+ * Un nom absent du filtre n'existe certainement pas : la connexion d'un utilisateur inconnu
+ * et les vérifications d'unicité à l'inscription sont tranchées sans requête.
+ * Les filtres sont construits au démarrage par un parcours en flux de la table, complétés à chaque
+ * enregistrement (localement ou sur un autre nœud) et reconstruits périodiquement pour oublier les suppressions.
+ * Les enregistrements des autres nœuds n'y figurent qu'après la lecture du journal des invalidations
+ * (app.cache.invalidationPollMs) : l'unicité reste garantie par les contraintes de la base.
+ * Lorsque des ajouts distants ont pu être perdus (cache vidé en bloc, entrées du journal sautées),
+ * les filtres ne sont plus fiables : ils répondent « peut-être » jusqu'à leur reconstruction, faite en tâche de fond.
+ */
+@Component
+@Slf4j
+public class UserExistenceFilter implements RemoteCacheInvalidationListener {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * Durée pendant laquelle un ajout est rejoué lors d'une reconstruction, pour couvrir
+     * les transactions encore en cours pendant le parcours de la table
+     */
+    private static final Duration RECENT_WINDOW = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Nombre d'utilisateurs pour lequel les filtres sont dimensionnés (au minimum)
+     */
+    @Value("${app.userBloomCapacity:100000}")
+    private long capacity;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Deque<RecentAdd> recentAdds = new ConcurrentLinkedDeque<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private volatile Filters filters;
+
+    /**
+     * Vrai lorsque des ajouts ont pu être manqués depuis la dernière reconstruction
+     */
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    public UserExistenceFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+
+        Gauge.builder("users.bloom.fpp", this, filter -> filter.filters.usernames().expectedFalsePositiveRate())
+            .tag("field", "username")
+            .description("Taux de faux positifs estimé du filtre de Bloom des noms d'utilisateur")
+            .register(meterRegistry);
+        Gauge.builder("users.bloom.fpp", this, filter -> filter.filters.emails().expectedFalsePositiveRate())
+            .tag("field", "email")
+            .description("Taux de faux positifs estimé du filtre de Bloom des emails")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param username Le nom d'utilisateur
+     * @return false si aucun utilisateur ne porte certainement ce nom
+     */
+    public boolean mightExistByUsername(String username) {
+        return username != null && (stale.get() || filters.usernames().mightContain(username));
+    }
+
+    /**
+     * @param email L'adresse email
+     * @return false si aucun utilisateur n'utilise certainement cette adresse
+     */
+    public boolean mightExistByEmail(String email) {
+        return email != null && (stale.get() || filters.emails().mightContain(email));
+    }
+
+    /**
+     * Ajoute un utilisateur aux filtres ; à appeler avant la validation de son enregistrement
+     * @param username Le nom d'utilisateur
+     * @param email L'adresse email
+     */
+    public void add(String username, String email) {
+        writeLock.lock();
+        try {
+            Instant now = Instant.now();
+            put(filters, username, email);
+            recentAdds.addLast(new RecentAdd(username, email, now));
+            trimRecentAdds(now);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Suit les enregistrements effectués par les autres nœuds : chaque nouvelle clé de cache
+     * invalidée sur userByUsername ou userByEmail est un nom ou un email peut-être existant ;
+     * un vidage complet de ces caches ne désigne aucun nom : les filtres sont alors reconstruits
+     */
+    @Override
+    public void onRemoteInvalidation(String cacheName, String key) {
+        switch (cacheName) {
+            case "userByUsername" -> {
+                if (key == null) {
+                    markStale();
+                } else {
+                    add(key, null);
+                }
+            }
+            case "userByEmail" -> {
+                if (key == null) {
+                    markStale();
+                } else {
+                    add(null, key);
+                }
+            }
+            default -> {
+                // Les autres caches ne portent pas de clé naturelle d'utilisateur
+            }
+        }
+    }
+
+    @Override
+    public void onRemoteInvalidationsMissed() {
+        markStale();
+    }
+
+    /**
+     * Reconstruit les filtres s'ils ont été déclarés non fiables
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidationPollMs:1000}")
+    public void rebuildIfStale() {
+        if (stale.get()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reconstruit les filtres depuis la base pour oublier les utilisateurs supprimés
+     * et redimensionner les filtres si le nombre d'utilisateurs a dépassé leur capacité
+     */
+    @Scheduled(fixedDelayString = "${app.userBloomRebuildMs:3600000}", initialDelayString = "${app.userBloomRebuildMs:3600000}")
+    public void rebuild() {
+        Instant started = Instant.now();
+        // Remis à zéro avant le parcours : un ajout manqué pendant celui-ci déclenchera une nouvelle reconstruction
+        boolean wasStale = stale.getAndSet(false);
+        Filters current = filters;
+        long expected = Math.max(capacity, current == null ? 0 : 2 * current.usernames().insertions());
+        Filters rebuilt = new Filters(new BloomFilter(expected, FALSE_POSITIVE_RATE),
+            new BloomFilter(expected, FALSE_POSITIVE_RATE));
+
+        AtomicLong users = new AtomicLong();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<UserRepository.NaturalKeys> keys = userRepository.streamNaturalKeys()) {
+                    keys.forEach(user -> {
+                        put(rebuilt, user.getUsername(), user.getEmail());
+                        users.incrementAndGet();
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            if (wasStale) {
+                stale.set(true);
+            }
+            throw e;
+        }
+
+        writeLock.lock();
+        try {
+            // Les ajouts faits pendant le parcours (ou par des transactions encore ouvertes) n'y figurent peut-être pas
+            trimRecentAdds(Instant.now());
+            recentAdds.forEach(add -> put(rebuilt, add.username(), add.email()));
+            filters = rebuilt;
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Filtres d'existence des utilisateurs construits : {} utilisateur(s) en {} ms",
+            users.get(), Duration.between(started, Instant.now()).toMillis());
+    }
+
+    private static void put(Filters target, String username, String email) {
+        if (username != null) {
+            target.usernames().put(username);
+        }
+        if (email != null) {
+            target.emails().put(email);
+        }
+    }
+
+    private void markStale() {
+        if (!stale.getAndSet(true)) {
+            log.info("Filtres d'existence des utilisateurs à reconstruire : des ajouts distants ont pu être manqués");
+        }
+    }
+
+    private void trimRecentAdds(Instant now) {
+        Instant limit = now.minus(RECENT_WINDOW);
+        RecentAdd oldest;
+        while ((oldest = recentAdds.peekFirst()) != null && oldest.addedAt().isBefore(limit)) {
+            recentAdds.pollFirst();
+        }
+    }
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+    }
+
+    private record RecentAdd(String username, String email, Instant addedAt) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fiche de sécurité immuable d'un utilisateur, conservée dans le cache "userByUsername"
+ * Contrairement à l'entité User, elle ne référence ni rôles ni permissions JPA : les autorités sont
+ * un AuthoritySet partagé par tous les utilisateurs ayant les mêmes rôles (voir AuthorityRegistry#authoritiesOf).
+ * @param id L'ID de l'utilisateur
+ * @param username Le nom d'utilisateur
+ * @param email L'adresse email
+ * @param passwordHash Le mot de passe haché
+ * @param enabled Compte activé
+ * @param accountNonExpired Compte non expiré
+ * @param credentialsNonExpired Identifiants non expirés
+ * @param accountNonLocked Compte non verrouillé
+ * @param authorities Les autorités (AuthoritySet partagé, sauf autorité non encodable en masque)
+ */
+public record UserSecurityRecord(Long id, String username, String email, String passwordHash,
+                                 boolean enabled, boolean accountNonExpired,
+                                 boolean credentialsNonExpired, boolean accountNonLocked,
+                                 Set<GrantedAuthority> authorities) {
+
+    /**
+     * Taille estimée d'une fiche hors chaînes et autorités partagées :
+     * en-tête et champs de la fiche (12 + 5 références + 4 booléens, arrondi à 8) et Long de l'ID
+     */
+    private static final int SHALLOW_BYTES = 40 + 16;
+
+    /**
+     * Construit la fiche d'un utilisateur
+     * @param user L'entité utilisateur avec ses rôles chargés
+     * @param authorityRegistry Le registre des autorités
+     * @return La fiche de l'utilisateur
+     */
+    public static UserSecurityRecord of(User user, AuthorityRegistry authorityRegistry) {
+        Set<GrantedAuthority> authorities = authorityRegistry.authoritiesOf(user);
+        if (authorities == null) {
+            // ID supérieur à MAX_AUTHORITY_ID : autorités portées par leur nom
+            authorities = Set.copyOf(UserDetailsImpl.build(user).getAuthorities());
+        }
+        return new UserSecurityRecord(
+            user.getId(),
+            user.getUsername(),
+            user.getEmail(),
+            user.getPassword(),
+            user.isEnabled(),
+            user.isAccountNonExpired(),
+            user.isCredentialsNonExpired(),
+            user.isAccountNonLocked(),
+            authorities);
+    }
+
+    /**
+     * Construit la fiche d'un utilisateur à partir de ses lignes d'authentification (projection)
+     * @param rows Les lignes de l'utilisateur, une par rôle (non vide)
+     * @param authorityRegistry Le registre des autorités
+     * @return La fiche de l'utilisateur, ou null si un rôle n'est pas encodable en masque
+     *         (l'entité complète est alors nécessaire, voir {@link #of(User, AuthorityRegistry)})
+     */
+    public static UserSecurityRecord of(List<UserRepository.AuthenticationRow> rows, AuthorityRegistry authorityRegistry) {
+        List<Role> roles = new ArrayList<>(rows.size());
+        for (UserRepository.AuthenticationRow row : rows) {
+            if (row.getRoleId() != null) {
+                // Seuls l'ID et le nom sont lus par le registre
+                roles.add(new Role(row.getRoleId(), row.getRoleName(), null, Set.of()));
+            }
+        }
+        AuthoritySet authorities = authorityRegistry.authoritiesOf(roles);
+        if (authorities == null) {
+            return null;
+        }
+        UserRepository.AuthenticationRow row = rows.get(0);
+        return new UserSecurityRecord(
+            row.getId(),
+            row.getUsername(),
+            row.getEmail(),
+            row.getPassword(),
+            row.isEnabled(),
+            row.isAccountNonExpired(),
+            row.isCredentialsNonExpired(),
+            row.isAccountNonLocked(),
+            authorities);
+    }
+
+    /**
+     * @return Les détails de l'utilisateur pour Spring Security
+     */
+    public UserDetailsImpl toUserDetails() {
+        return new UserDetailsImpl(id, username, email, passwordHash,
+            enabled, accountNonExpired, credentialsNonExpired, accountNonLocked, authorities);
+    }
+
+    /**
+     * Estimation de la mémoire propre à la fiche (JVM 64 bits, références compressées, chaînes Latin-1)
+     * Les autorités, partagées entre utilisateurs, ne sont pas comptées
+     * @return Le nombre d'octets estimé
+     */
+    public long estimatedSizeBytes() {
+        return SHALLOW_BYTES + stringBytes(username) + stringBytes(email) + stringBytes(passwordHash);
+    }
+
+    private static long stringBytes(String value) {
+        // Objet String (24 octets) et tableau d'octets (16 octets d'en-tête, arrondi à 8)
+        return value == null ? 0 : 24 + ((16 + value.length() + 7) & ~7L);
+    }
+}
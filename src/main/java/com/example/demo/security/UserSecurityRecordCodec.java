@@ -0,0 +1,93 @@
+package com.example.demo.security;
+
+import com.example.demo.config.OffHeapValueCodec;
+import com.example.demo.service.UserDetailsServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sérialisation des fiches de sécurité pour le cache "userByUsername" lorsqu'il est hors tas
+ * Les autorités sont écrites sous forme de masques (comme dans les tokens) et relues par l'AuthorityRegistry ;
+ * seules les autorités non encodables en masque sont écrites par leur nom.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSecurityRecordCodec implements OffHeapValueCodec<UserSecurityRecord> {
+
+    private static final int ENABLED = 1;
+    private static final int ACCOUNT_NON_EXPIRED = 1 << 1;
+    private static final int CREDENTIALS_NON_EXPIRED = 1 << 2;
+    private static final int ACCOUNT_NON_LOCKED = 1 << 3;
+    private static final int AUTHORITY_MASKS = 1 << 4;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    @Override
+    public String cacheName() {
+        return UserDetailsServiceImpl.USER_SECURITY_CACHE;
+    }
+
+    @Override
+    public Class<UserSecurityRecord> valueType() {
+        return UserSecurityRecord.class;
+    }
+
+    @Override
+    public void write(UserSecurityRecord securityRecord, DataOutput out) throws IOException {
+        boolean masks = securityRecord.authorities() instanceof AuthoritySet;
+        out.writeLong(securityRecord.id());
+        out.writeUTF(securityRecord.username());
+        out.writeUTF(securityRecord.email());
+        out.writeUTF(securityRecord.passwordHash());
+        out.writeByte((securityRecord.enabled() ? ENABLED : 0)
+            | (securityRecord.accountNonExpired() ? ACCOUNT_NON_EXPIRED : 0)
+            | (securityRecord.credentialsNonExpired() ? CREDENTIALS_NON_EXPIRED : 0)
+            | (securityRecord.accountNonLocked() ? ACCOUNT_NON_LOCKED : 0)
+            | (masks ? AUTHORITY_MASKS : 0));
+        if (securityRecord.authorities() instanceof AuthoritySet authorities) {
+            out.writeUTF(nullToEmpty(authorities.permissionMask()));
+            out.writeUTF(nullToEmpty(authorities.roleMask()));
+        } else {
+            out.writeShort(securityRecord.authorities().size());
+            for (GrantedAuthority authority : securityRecord.authorities()) {
+                out.writeUTF(authority.getAuthority());
+            }
+        }
+    }
+
+    @Override
+    public UserSecurityRecord read(DataInput in) throws IOException {
+        long id = in.readLong();
+        String username = in.readUTF();
+        String email = in.readUTF();
+        String passwordHash = in.readUTF();
+        int flags = in.readByte();
+        Set<GrantedAuthority> authorities;
+        if ((flags & AUTHORITY_MASKS) != 0) {
+            authorities = authorityRegistry.decode(in.readUTF(), in.readUTF());
+        } else {
+            int count = in.readShort();
+            Set<GrantedAuthority> named = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                named.add(new SimpleGrantedAuthority(in.readUTF()));
+            }
+            authorities = Set.copyOf(named);
+        }
+        return new UserSecurityRecord(id, username, email, passwordHash,
+            (flags & ENABLED) != 0, (flags & ACCOUNT_NON_EXPIRED) != 0,
+            (flags & CREDENTIALS_NON_EXPIRED) != 0, (flags & ACCOUNT_NON_LOCKED) != 0,
+            authorities);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.security;
+
+import com.example.demo.aop.RemoteCacheInvalidationListener;
+import com.example.demo.aop.TransactionalCacheInvalidator;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.util.LongKeyedCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registre des versions de tokens par utilisateur
+ * Chaque token embarque la version courante de son utilisateur au moment de l'émission ;
+ * incrémenter la version rend obsolètes tous les tokens émis auparavant, sur tous les nœuds.
+ * La version est persistée (colonne users.token_version) et lue à la demande dans un cache borné
+ * (app.tokenVersionCacheSize entrées, app.tokenVersionCacheTtlMs), chargé hors de tout verrou : une lecture
+ * commencée avant une invalidation n'écrase pas la version plus récente. Une incrémentation retire l'entrée
+ * locale après le commit et est publiée sur le canal {@link #INVALIDATION_CHANNEL} pour que les autres nœuds
+ * relisent la version en base.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserTokenVersionRegistry implements RemoteCacheInvalidationListener {
+
+    /**
+     * Nom sous lequel les incrémentations de version sont journalisées pour les autres nœuds
+     */
+    public static final String INVALIDATION_CHANNEL = "tokenVersions";
+
+    /**
+     * Version retenue pour un utilisateur supprimé : aucun token ne peut l'atteindre
+     */
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final TransactionalCacheInvalidator cacheInvalidator;
+
+    /**
+     * Nombre maximal de versions en cache
+     */
+    @Value("${app.tokenVersionCacheSize:100000}")
+    private int cacheSize;
+
+    /**
+     * Durée de vie d'une version en cache ; filet de sécurité si une invalidation distante était manquée
+     */
+    @Value("${app.tokenVersionCacheTtlMs:600000}")
+    private long cacheTtlMs;
+
+    private LongKeyedCache<Long> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = new LongKeyedCache<>(cacheSize, TimeUnit.MILLISECONDS.toNanos(cacheTtlMs));
+    }
+
+    /**
+     * Retourne la version courante des tokens d'un utilisateur
+     * @param userId L'ID de l'utilisateur
+     * @return La version courante (0 si aucune invalidation n'a eu lieu)
+     */
+    public long currentVersion(Long userId) {
+        Long cached = versions.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long invalidationStamp = versions.invalidationStamp();
+        Long stored = userRepository.findTokenVersion(userId);
+        long version = stored == null ? DELETED : stored;
+        versions.putIfNotInvalidatedSince(userId, version, invalidationStamp);
+        return version;
+    }
+
+    /**
+     * Vérifie qu'une version de token est toujours d'actualité
+     * @param userId L'ID de l'utilisateur
+     * @param tokenVersion La version portée par le token
+     * @return true si le token n'a pas été rendu obsolète ni l'utilisateur supprimé
+     */
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        long current = currentVersion(userId);
+        return current != DELETED && tokenVersion >= current;
+    }
+
+    /**
+     * Rend obsolètes tous les tokens déjà émis pour un utilisateur
+     * À appeler lors d'un changement de mot de passe, d'état du compte ou d'une suppression.
+     * L'incrémentation fait partie de la transaction courante s'il y en a une.
+     * @param userId L'ID de l'utilisateur
+     */
+    public void invalidateTokens(Long userId) {
+        if (userRepository.incrementTokenVersion(userId) == 0) {
+            log.debug("Utilisateur {} absent, ses tokens sont refusés", userId);
+        } else {
+            log.debug("Tokens de l'utilisateur {} invalidés", userId);
+        }
+        forgetAfterCommit(userId);
+        cacheInvalidator.evict(INVALIDATION_CHANNEL, userId);
+    }
+
+    @Override
+    public void onRemoteInvalidation(String cacheName, String key) {
+        if (!INVALIDATION_CHANNEL.equals(cacheName)) {
+            return;
+        }
+        if (key == null) {
+            versions.clear();
+            return;
+        }
+        try {
+            versions.remove(Long.valueOf(key));
+        } catch (NumberFormatException e) {
+            log.warn("Clé de version de tokens invalide: {}", key);
+        }
+    }
+
+    @Override
+    public void onRemoteInvalidationsMissed() {
+        versions.clear();
+    }
+
+    /**
+     * Retire la version mise en cache après le commit de la transaction courante (immédiatement hors transaction)
+     */
+    private void forgetAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.remove(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.remove(userId);
+            }
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache borné des tokens JWT dont la signature a déjà été vérifiée
+ * Les entrées sont indexées par l'empreinte SHA-256 du token et expirent avec lui
+ */
+class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final Map<TokenDigest, Entry> entries;
+
+    /**
+     * @param maxSize Nombre maximal de tokens conservés (0 désactive le cache)
+     */
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        this.entries = new ConcurrentHashMap<>(Math.min(this.maxSize, 1024));
+    }
+
+    /**
+     * Calcule la clé de cache d'un token
+     * @param token Le token JWT brut
+     * @return L'empreinte du token
+     */
+    TokenDigest digest(String token) {
+        return TokenDigest.of(token);
+    }
+
+    /**
+     * Récupère les claims d'un token déjà vérifié et encore valide
+     * @param digest L'empreinte du token
+     * @param nowMillis L'instant courant
+     * @return Les claims ou null si absents ou expirés
+     */
+    Claims get(TokenDigest digest, long nowMillis) {
+        if (maxSize == 0) {
+            return null;
+        }
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= nowMillis) {
+            entries.remove(digest, entry);
+            return null;
+        }
+        return entry.claims;
+    }
+
+    /**
+     * Enregistre les claims d'un token dont la signature vient d'être vérifiée
+     * @param digest L'empreinte du token
+     * @param claims Les claims vérifiés
+     * @param nowMillis L'instant courant
+     */
+    void put(TokenDigest digest, Claims claims, long nowMillis) {
+        if (maxSize == 0 || claims.getExpiration() == null) {
+            return;
+        }
+        long expiresAtMillis = claims.getExpiration().getTime();
+        if (expiresAtMillis <= nowMillis) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict(nowMillis);
+        }
+        entries.put(digest, new Entry(claims, expiresAtMillis));
+    }
+
+    /**
+     * Supprime une entrée (par exemple lorsqu'un token est révoqué)
+     * @param digest L'empreinte du token
+     */
+    void invalidate(TokenDigest digest) {
+        entries.remove(digest);
+    }
+
+    /**
+     * @return Le nombre d'entrées actuellement en cache
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Libère de la place : d'abord les tokens expirés, puis un lot d'entrées arbitraires
+     * pour éviter de repasser sur toute la table à chaque insertion
+     */
+    private void evict(long nowMillis) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis <= nowMillis);
+
+        int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<TokenDigest> iterator = entries.keySet().iterator();
+        while (excess-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry(Claims claims, long expiresAtMillis) {
+    }
+
+    /**
+     * Empreinte SHA-256 d'un token, conservée sous forme de quatre longs
+     */
+    record TokenDigest(long h0, long h1, long h2, long h3) {
+
+        static TokenDigest of(String token) {
+            MessageDigest sha256;
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 non disponible", e);
+            }
+            ByteBuffer hash = ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+}
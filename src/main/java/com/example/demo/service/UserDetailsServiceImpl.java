@@ -1,14 +1,25 @@
 package com.example.demo.service;
 
-import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
-import com.example.demo.security.UserDetailsImpl;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.UserExistenceFilter;
+import com.example.demo.security.UserSecurityRecord;
+import com.example.demo.util.SingleFlight;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Service d'implémentation de UserDetailsService pour charger les utilisateurs
@@ -17,20 +28,148 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
 
+    /**
+     * Cache des fiches de sécurité, par nom d'utilisateur
+     */
+    public static final String USER_SECURITY_CACHE = "userByUsername";
+
     private final UserRepository userRepository;
+    private final AuthorityRegistry authorityRegistry;
+    private final UserExistenceFilter userExistenceFilter;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Attente maximale du chargement d'une fiche effectué par une autre requête
+     */
+    @Value("${app.userLoadWaitTimeoutMs:2000}")
+    private long userLoadWaitTimeoutMs;
+
+    /**
+     * Nombre maximal de fiches examinées pour estimer l'empreinte mémoire du cache
+     */
+    @Value("${app.userSecurityCacheFootprintSampleSize:1000}")
+    private int footprintSampleSize;
+
+    private SingleFlight<String, UserSecurityRecord> securityRecordLoads;
+
+    /**
+     * Dernière estimation de l'empreinte du cache, lue par les jauges sans parcourir le cache
+     */
+    private volatile CacheFootprint cachedRecordsFootprint = new CacheFootprint(0, 0);
+
+    /**
+     * Prépare le regroupement des chargements et expose l'empreinte mémoire estimée des fiches en cache
+     * L'estimation est recalculée en tâche de fond (app.userSecurityCacheFootprintRefreshMs) : une collecte
+     * des métriques ne fait que lire la dernière valeur.
+     */
+    @PostConstruct
+    public void init() {
+        securityRecordLoads = new SingleFlight<>(USER_SECURITY_CACHE, Duration.ofMillis(userLoadWaitTimeoutMs),
+            meterRegistry);
+
+        refreshCachedRecordsFootprint();
+        Gauge.builder("users.security.cache.bytes", this, service -> service.cachedRecordsFootprint.bytes())
+            .description("Mémoire estimée des fiches de sécurité en cache (hors autorités partagées)")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("users.security.cache.entry.bytes", this,
+                service -> service.cachedRecordsFootprint.bytesPerEntry())
+            .description("Mémoire estimée par fiche de sécurité en cache")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
 
     /**
      * Charge un utilisateur par son nom d'utilisateur
+     * Un nom absent du filtre de Bloom est rejeté sans requête ni entrée de cache négative.
+     * Le cache "userByUsername" contient des fiches immuables (UserSecurityRecord), pas des entités.
+     * En cas d'absence du cache, un seul chargement par nom est effectué à la fois ; les requêtes concurrentes
+     * attendent son résultat au plus app.userLoadWaitTimeoutMs, puis lisent la base directement.
      * @param username Le nom d'utilisateur à rechercher
      * @return Les détails de l'utilisateur sous forme de UserDetails
      * @throws UsernameNotFoundException Si l'utilisateur n'est pas trouvé
      */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec le nom d'utilisateur: " + username));
+        if (!userExistenceFilter.mightExistByUsername(username)) {
+            throw new UsernameNotFoundException("Utilisateur non trouvé avec le nom d'utilisateur: " + username);
+        }
+        Cache cache = securityRecords();
+        Cache.ValueWrapper cached = cache.get(username);
+        UserSecurityRecord securityRecord = cached != null
+            ? (UserSecurityRecord) cached.get()
+            : securityRecordLoads.load(username,
+                () -> cache.get(username, () -> loadSecurityRecord(username)),
+                // Chargement trop long : lecture directe, sans attendre ni alimenter le cache
+                () -> loadSecurityRecord(username));
+        if (securityRecord == null) {
+            throw new UsernameNotFoundException("Utilisateur non trouvé avec le nom d'utilisateur: " + username);
+        }
+        return securityRecord.toUserDetails();
+    }
+
+    /**
+     * Lit la fiche en une requête sur les seules colonnes utiles (utilisateur et ID/nom de ses rôles) ;
+     * l'entité complète n'est chargée que si un rôle n'est pas encodable en masque
+     */
+    private UserSecurityRecord loadSecurityRecord(String username) {
+        List<UserRepository.AuthenticationRow> rows = userRepository.findAuthenticationRowsByUsername(username);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        UserSecurityRecord securityRecord = UserSecurityRecord.of(rows, authorityRegistry);
+        if (securityRecord != null) {
+            return securityRecord;
+        }
+        return userRepository.findByUsername(username)
+            .map(user -> UserSecurityRecord.of(user, authorityRegistry))
+            .orElse(null);
+    }
+
+    /**
+     * Estime l'empreinte des fiches en cache à partir d'un échantillon d'au plus app.userSecurityCacheFootprintSampleSize
+     * fiches, extrapolé au nombre estimé d'entrées : le coût ne dépend pas de la taille du cache
+     */
+    @Scheduled(fixedDelayString = "${app.userSecurityCacheFootprintRefreshMs:60000}",
+        initialDelayString = "${app.userSecurityCacheFootprintRefreshMs:60000}")
+    public void refreshCachedRecordsFootprint() {
+        if (!(securityRecords().getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return;
+        }
+        long entries = nativeCache.estimatedSize();
+        long sampledBytes = 0;
+        long sampled = 0;
+        for (Object value : nativeCache.asMap().values()) {
+            if (sampled >= footprintSampleSize) {
+                break;
+            }
+            if (value instanceof UserSecurityRecord securityRecord) {
+                sampledBytes += securityRecord.estimatedSizeBytes();
+                sampled++;
+            }
+        }
+        long bytes = sampled == 0 ? 0 : Math.round((double) sampledBytes / sampled * entries);
+        cachedRecordsFootprint = new CacheFootprint(bytes, sampled == 0 ? 0 : entries);
+    }
+
+    private Cache securityRecords() {
+        Cache cache = cacheManager.getCache(USER_SECURITY_CACHE);
+        if (cache == null) {
+            throw new IllegalStateException("Cache '" + USER_SECURITY_CACHE + "' non configuré");
+        }
+        return cache;
+    }
+
+    /**
+     * Empreinte estimée des fiches en cache
+     * @param bytes Octets estimés
+     * @param entries Nombre estimé de fiches
+     */
+    private record CacheFootprint(long bytes, long entries) {
 
-        return UserDetailsImpl.build(user);
+        double bytesPerEntry() {
+            return entries == 0 ? 0 : (double) bytes / entries;
+        }
     }
 }
@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service d'export de tous les utilisateurs au format NDJSON (un objet JSON par ligne)
+ * Les lignes sont lues par lots (fetch size) et écrites au fil de l'eau : la mémoire utilisée ne dépend pas
+ * du nombre d'utilisateurs. L'écriture bloque tant que le client ne lit pas, ce qui freine la lecture en base.
+ * Le mot de passe haché n'est pas exporté.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserExportService {
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Nombre d'utilisateurs écrits entre deux envois forcés au client
+     */
+    @Value("${app.users.exportFlushEvery:1000}")
+    private int flushEvery;
+
+    /**
+     * Durée maximale d'un export, propre à cette réponse (le délai des autres réponses asynchrones n'est pas modifié)
+     */
+    @Value("${app.users.exportTimeoutMs:3600000}")
+    private long timeoutMs;
+
+    /**
+     * Refuse au démarrage une configuration incohérente plutôt qu'à la première requête
+     */
+    @PostConstruct
+    public void init() {
+        if (flushEvery < 1) {
+            throw new IllegalStateException("app.users.exportFlushEvery doit être supérieur ou égal à 1: " + flushEvery);
+        }
+    }
+
+    /**
+     * @return La durée maximale d'un export, en millisecondes
+     */
+    public long timeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Écrit tous les utilisateurs, par ordre croissant d'ID
+     * Format d'une ligne : {"id":1,"username":"...","email":"...","enabled":true,"accountNonExpired":true,
+     * "accountNonLocked":true,"credentialsNonExpired":true,"roles":["USER"]}
+     * @param out Le flux de sortie (non fermé)
+     * @return Le nombre d'utilisateurs exportés
+     * @throws IOException En cas d'erreur d'écriture, notamment si le client se déconnecte
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out) throws IOException {
+        long exported = 0;
+        try (Stream<UserRepository.ExportRow> rows = userRepository.streamForExport();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Les objets sont séparés par un saut de ligne (écrit par endUser), pas par l'espace par défaut
+            generator.setRootValueSeparator(null);
+
+            Long currentId = null;
+            for (Iterator<UserRepository.ExportRow> it = rows.iterator(); it.hasNext(); ) {
+                UserRepository.ExportRow row = it.next();
+                // Les lignes d'un même utilisateur (une par rôle) sont consécutives
+                if (!row.getId().equals(currentId)) {
+                    if (currentId != null) {
+                        endUser(generator);
+                        if (++exported % flushEvery == 0) {
+                            generator.flush();
+                        }
+                    }
+                    currentId = row.getId();
+                    startUser(generator, row);
+                }
+                if (row.getRoleName() != null) {
+                    generator.writeString(row.getRoleName());
+                }
+            }
+            if (currentId != null) {
+                endUser(generator);
+                exported++;
+            }
+            generator.flush();
+        }
+        log.info("Export de {} utilisateur(s) terminé", exported);
+        return exported;
+    }
+
+    private static void startUser(JsonGenerator generator, UserRepository.ExportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.getId());
+        generator.writeStringField("username", row.getUsername());
+        generator.writeStringField("email", row.getEmail());
+        generator.writeBooleanField("enabled", row.isEnabled());
+        generator.writeBooleanField("accountNonExpired", row.isAccountNonExpired());
+        generator.writeBooleanField("accountNonLocked", row.isAccountNonLocked());
+        generator.writeBooleanField("credentialsNonExpired", row.isCredentialsNonExpired());
+        generator.writeArrayFieldStart("roles");
+    }
+
+    private static void endUser(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,512 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.RegisterRequest;
+import com.example.demo.dto.UserImportReport;
+import com.example.demo.exception.InvalidImportException;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.BoundedPasswordEncoder;
+import com.example.demo.security.UserExistenceFilter;
+import com.example.demo.util.CsvReader;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Service d'import en masse d'utilisateurs (CSV, tableau JSON ou NDJSON)
+ * Le fichier est lu en flux et traité par lots de app.users.importBatchSize lignes ; pour chaque lot :
+ * validation (mêmes contraintes que l'inscription), unicité vérifiée en deux requêtes IN (seuls les noms et emails
+ * que les filtres de Bloom jugent peut-être existants sont interrogés), hachage des mots de passe en parallèle sur
+ * un pool dédié, puis insertion dans une transaction par lots JDBC (IDs tirés de la séquence users_seq).
+ * Les lignes invalides sont rejetées individuellement et reportées avec leur numéro, sans interrompre l'import.
+ * Le hachage n'utilise pas le pool borné des connexions : un import ne provoque pas de 503 sur /api/auth/login.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportService {
+
+    /**
+     * Format CSV : en-tête obligatoire avec les colonnes username, email, password et, optionnellement, roles
+     * (noms de rôles séparés par |)
+     */
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    /**
+     * Format NDJSON : un objet par ligne, mêmes champs que RegisterRequest
+     */
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final String DEFAULT_ROLE = "USER";
+    private static final String ROLE_SEPARATOR = "\\|";
+
+    private final UserRepository userRepository;
+    private final UserExistenceFilter userExistenceFilter;
+    private final AuthorityRegistry authorityRegistry;
+    private final PasswordEncoder passwordEncoder;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Nombre de lignes insérées par transaction
+     */
+    @Value("${app.users.importBatchSize:1000}")
+    private int batchSize;
+
+    /**
+     * Nombre de hachages simultanés (0 = nombre de cœurs)
+     */
+    @Value("${app.users.importHashingThreads:0}")
+    private int hashingThreads;
+
+    /**
+     * Nombre maximal d'erreurs détaillées dans le rapport
+     */
+    @Value("${app.users.importMaxReportedErrors:1000}")
+    private int maxReportedErrors;
+
+    private ExecutorService hashingExecutor;
+    private PasswordEncoder hasher;
+    private TransactionTemplate transaction;
+    private Counter importedCounter;
+    private Counter rejectedCounter;
+
+    /**
+     * Prépare le pool de hachage et les compteurs
+     */
+    @PostConstruct
+    public void init() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        hashingExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        hasher = passwordEncoder instanceof BoundedPasswordEncoder bounded ? bounded.delegate() : passwordEncoder;
+        transaction = new TransactionTemplate(transactionManager);
+
+        importedCounter = Counter.builder("users.import.rows")
+            .description("Lignes traitées par l'import en masse des utilisateurs")
+            .tag("result", "imported")
+            .register(meterRegistry);
+        rejectedCounter = Counter.builder("users.import.rows")
+            .description("Lignes traitées par l'import en masse des utilisateurs")
+            .tag("result", "rejected")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    /**
+     * Importe les utilisateurs d'un fichier
+     * Les lots déjà insérés restent en base si la lecture échoue en cours de route
+     * @param input Le contenu du fichier (non fermé)
+     * @param contentType Le format du fichier : text/csv, application/json ou application/x-ndjson
+     * @return Le rapport de l'import
+     * @throws InvalidImportException Si le format n'est pas supporté ou si l'en-tête CSV est incomplet
+     */
+    public UserImportReport importUsers(InputStream input, MediaType contentType) {
+        Instant started = Instant.now();
+        Progress progress = new Progress(maxReportedErrors);
+        Map<String, Optional<Role>> roles = new HashMap<>();
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+        RowSource rows = open(input, contentType);
+        try {
+            for (ImportRow row = rows.next(); row != null; row = rows.next()) {
+                chunk.add(row);
+                if (chunk.size() >= batchSize) {
+                    importChunk(chunk, roles, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            // Flux illisible au-delà de ce point : les lignes déjà lues sont tout de même importées
+            reject(progress, progress.rowsRead + chunk.size() + 1, null, "Lecture interrompue: " + e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, roles, progress);
+        }
+
+        long durationMs = Math.max(1, Duration.between(started, Instant.now()).toMillis());
+        double rowsPerSecond = progress.rowsRead * 1000.0 / durationMs;
+        log.info("Import d'utilisateurs terminé : {} ligne(s), {} créé(s), {} rejetée(s) en {} ms ({} lignes/s)",
+            progress.rowsRead, progress.imported, progress.rejected, durationMs, Math.round(rowsPerSecond));
+        return new UserImportReport(progress.rowsRead, progress.imported, progress.rejected, durationMs,
+            rowsPerSecond, progress.errors, progress.errorsTruncated);
+    }
+
+    /**
+     * Valide, hache et insère un lot de lignes
+     */
+    private void importChunk(List<ImportRow> chunk, Map<String, Optional<Role>> roles, Progress progress) {
+        List<Candidate> candidates = new ArrayList<>(chunk.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (ImportRow row : chunk) {
+            progress.rowsRead++;
+            RegisterRequest request = row.request();
+            String username = request == null ? null : request.getUsername();
+            String error = row.error() != null ? row.error()
+                : request == null ? "Ligne vide" : validate(request);
+            Set<Role> userRoles = null;
+            if (error == null) {
+                userRoles = resolveRoles(request.getRoles(), roles);
+                if (userRoles == null) {
+                    error = "Rôle inconnu parmi " + request.getRoles();
+                } else if (usernames.contains(username)) {
+                    error = "Nom d'utilisateur présent plusieurs fois dans le fichier";
+                } else if (emails.contains(request.getEmail())) {
+                    error = "Adresse email présente plusieurs fois dans le fichier";
+                }
+            }
+            if (error != null) {
+                reject(progress, row.row(), username, error);
+                continue;
+            }
+            usernames.add(username);
+            emails.add(request.getEmail());
+            candidates.add(new Candidate(row.row(), request, userRoles));
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // Unicité vérifiée en bloc ; les lots précédents, déjà validés, sont vus par ces requêtes
+        Set<String> takenUsernames = existing(usernames, userExistenceFilter::mightExistByUsername,
+            userRepository::findExistingUsernames);
+        Set<String> takenEmails = existing(emails, userExistenceFilter::mightExistByEmail,
+            userRepository::findExistingEmails);
+
+        List<Candidate> accepted = new ArrayList<>(candidates.size());
+        List<Future<String>> hashes = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            RegisterRequest request = candidate.request();
+            if (takenUsernames.contains(request.getUsername())) {
+                reject(progress, candidate.row(), request.getUsername(), "Ce nom d'utilisateur est déjà pris");
+            } else if (takenEmails.contains(request.getEmail())) {
+                reject(progress, candidate.row(), request.getUsername(), "Cette adresse email est déjà utilisée");
+            } else {
+                accepted.add(candidate);
+                hashes.add(hashingExecutor.submit(() -> hasher.encode(request.getPassword())));
+            }
+        }
+
+        List<Candidate> hashed = new ArrayList<>(accepted.size());
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            Candidate candidate = accepted.get(i);
+            try {
+                users.add(toUser(candidate, hashes.get(i).get()));
+                hashed.add(candidate);
+            } catch (ExecutionException e) {
+                reject(progress, candidate.row(), candidate.request().getUsername(),
+                    "Échec du hachage du mot de passe: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                hashes.forEach(hash -> hash.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrompu", e);
+            }
+        }
+        insert(hashed, users, progress);
+    }
+
+    /**
+     * Insère un lot dans une transaction ; en cas de conflit (inscription concurrente),
+     * les lignes sont réinsérées une à une pour isoler celles en cause
+     */
+    private void insert(List<Candidate> candidates, List<User> users, Progress progress) {
+        if (users.isEmpty()) {
+            return;
+        }
+        try {
+            save(users);
+            progress.imported += users.size();
+            importedCounter.increment(users.size());
+            return;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Conflit lors de l'insertion d'un lot de {} utilisateur(s), insertion ligne par ligne", users.size());
+        }
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            // L'ID attribué pendant la transaction annulée n'a pas été inséré
+            user.setId(null);
+            try {
+                save(List.of(user));
+                progress.imported++;
+                importedCounter.increment();
+            } catch (DataIntegrityViolationException e) {
+                reject(progress, candidates.get(i).row(), user.getUsername(),
+                    "Nom d'utilisateur ou adresse email déjà utilisé");
+            }
+        }
+    }
+
+    /**
+     * Enregistre des utilisateurs nouveaux ; CacheInvalidationAspect les ajoute aux filtres d'existence
+     * avant le commit et ne retire que leurs clés des caches, sur ce nœud et sur les autres
+     */
+    private void save(List<User> users) {
+        transaction.executeWithoutResult(status -> userRepository.saveAll(users));
+    }
+
+    private static User toUser(Candidate candidate, String passwordHash) {
+        User user = new User();
+        user.setUsername(candidate.request().getUsername());
+        user.setEmail(candidate.request().getEmail());
+        user.setPassword(passwordHash);
+        user.setRoles(candidate.roles());
+        return user;
+    }
+
+    /**
+     * @return Les messages des contraintes non respectées, ou null si la ligne est valide
+     */
+    private String validate(RegisterRequest request) {
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Résout les rôles demandés (USER par défaut) via le registre des autorités, sans requête
+     * @return Les rôles, ou null si l'un d'eux est inconnu
+     */
+    private Set<Role> resolveRoles(Set<String> names, Map<String, Optional<Role>> resolved) {
+        Set<String> requested = names == null || names.isEmpty() ? Set.of(DEFAULT_ROLE) : names;
+        Set<Role> userRoles = new HashSet<>();
+        for (String name : requested) {
+            Optional<Role> role = resolved.computeIfAbsent(name, authorityRegistry::findRole);
+            if (role.isEmpty()) {
+                return null;
+            }
+            userRoles.add(role.get());
+        }
+        return userRoles;
+    }
+
+    /**
+     * @return Les valeurs déjà présentes en base, en n'interrogeant que celles que le filtre ne peut pas écarter
+     */
+    private static Set<String> existing(Set<String> values, Predicate<String> mightExist,
+                                        Function<List<String>, List<String>> query) {
+        List<String> suspects = values.stream().filter(mightExist).toList();
+        return suspects.isEmpty() ? Set.of() : new HashSet<>(query.apply(suspects));
+    }
+
+    private void reject(Progress progress, long row, String username, String message) {
+        progress.reject(row, username, message);
+        rejectedCounter.increment();
+    }
+
+    private RowSource open(InputStream input, MediaType contentType) {
+        if (contentType == null) {
+            throw new InvalidImportException("Type de contenu manquant (text/csv, application/json ou application/x-ndjson)");
+        }
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return new CsvRowSource(new CsvReader(new InputStreamReader(input, charset)));
+        }
+        if (MediaType.APPLICATION_JSON.isCompatibleWith(contentType) || APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            try {
+                return new JsonRowSource(objectMapper.readerFor(RegisterRequest.class).readValues(input));
+            } catch (IOException e) {
+                throw new InvalidImportException("Fichier JSON illisible: " + e.getMessage());
+            }
+        }
+        throw new InvalidImportException("Type de contenu non supporté pour l'import: " + contentType);
+    }
+
+    /**
+     * Ligne lue dans le fichier : une demande à valider, ou une erreur de lecture propre à la ligne
+     */
+    private record ImportRow(long row, RegisterRequest request, String error) {
+    }
+
+    /**
+     * Ligne valide et unique dans son lot, avec ses rôles résolus
+     */
+    private record Candidate(long row, RegisterRequest request, Set<Role> roles) {
+    }
+
+    /**
+     * Source de lignes lue en flux
+     */
+    private interface RowSource {
+
+        /**
+         * @return La ligne suivante, ou null en fin de fichier
+         * @throws IOException Si le flux ne peut plus être lu
+         */
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * Lignes d'un fichier CSV dont la première ligne nomme les colonnes
+     */
+    private static final class CsvRowSource implements RowSource {
+
+        private final CsvReader reader;
+        private int columns;
+        private int usernameColumn = -1;
+        private int emailColumn = -1;
+        private int passwordColumn = -1;
+        private int rolesColumn = -1;
+
+        CsvRowSource(CsvReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            if (columns == 0) {
+                readHeader();
+            }
+            List<String> fields = reader.readRecord();
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() != columns) {
+                return new ImportRow(reader.recordLine(), null,
+                    "Nombre de colonnes incorrect: " + fields.size() + " au lieu de " + columns);
+            }
+            RegisterRequest request = new RegisterRequest(fields.get(usernameColumn), fields.get(emailColumn),
+                fields.get(passwordColumn), rolesColumn < 0 ? null : roles(fields.get(rolesColumn)));
+            return new ImportRow(reader.recordLine(), request, null);
+        }
+
+        private void readHeader() throws IOException {
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                throw new InvalidImportException("Fichier CSV vide : en-tête username,email,password[,roles] attendu");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "username" -> usernameColumn = i;
+                    case "email" -> emailColumn = i;
+                    case "password" -> passwordColumn = i;
+                    case "roles" -> rolesColumn = i;
+                    default -> {
+                        // Colonne ignorée
+                    }
+                }
+            }
+            if (usernameColumn < 0 || emailColumn < 0 || passwordColumn < 0) {
+                throw new InvalidImportException("En-tête CSV incomplet : colonnes username, email et password requises");
+            }
+            columns = header.size();
+        }
+
+        private static Set<String> roles(String field) {
+            return Arrays.stream(field.split(ROLE_SEPARATOR))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Objets d'un tableau JSON ou d'un flux NDJSON
+     */
+    private static final class JsonRowSource implements RowSource {
+
+        private final MappingIterator<RegisterRequest> values;
+        private long row;
+
+        JsonRowSource(MappingIterator<RegisterRequest> values) {
+            this.values = values;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            if (!values.hasNextValue()) {
+                return null;
+            }
+            row++;
+            try {
+                return new ImportRow(row, values.nextValue(), null);
+            } catch (DatabindException e) {
+                // Objet mal typé : ignoré, la lecture reprend à l'objet suivant
+                return new ImportRow(row, null, "Objet invalide: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Compteurs et erreurs d'un import en cours
+     */
+    private static final class Progress {
+
+        private final int maxErrors;
+        private final List<UserImportReport.RowError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+        private boolean errorsTruncated;
+
+        Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long row, String username, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportReport.RowError(row, username, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.UserPage;
+import com.example.demo.dto.UserSummary;
+import com.example.demo.exception.InvalidCursorException;
+import com.example.demo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Service de consultation paginée des utilisateurs
+ * La pagination se fait par clé sur l'ID (WHERE id > dernier ID vu) : chaque page coûte une requête d'IDs
+ * bornée par la taille de page et une requête de chargement, quelle que soit sa position dans la table.
+ * Les pages contiennent des résumés (colonnes de l'utilisateur et noms de ses rôles), pas des entités.
+ * Le curseur est opaque et lié aux filtres pour lesquels il a été émis ; les pages sont mises en cache
+ * dans "userPages", vidé à chaque écriture sur les utilisateurs (voir CacheInvalidationAspect).
+ */
+@Service
+@RequiredArgsConstructor
+public class UserPageService {
+
+    /**
+     * Cache des pages, par filtres, position et taille
+     */
+    public static final String USER_PAGES_CACHE = "userPages";
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    /**
+     * Taille de page appliquée quand le client n'en précise pas
+     */
+    @Value("${app.users.pageSize:50}")
+    private int defaultPageSize;
+
+    /**
+     * Taille de page maximale acceptée
+     */
+    @Value("${app.users.maxPageSize:500}")
+    private int maxPageSize;
+
+    /**
+     * Récupère une page d'utilisateurs
+     * @param username Préfixe du nom d'utilisateur (null pour ne pas filtrer)
+     * @param email Préfixe de l'email (null pour ne pas filtrer)
+     * @param enabled État du compte (null pour ne pas filtrer)
+     * @param cursor Le curseur renvoyé avec la page précédente (null pour la première page)
+     * @param size La taille de page demandée (null pour la taille par défaut)
+     * @return La page et le curseur de la suivante
+     * @throws InvalidCursorException Si le curseur est illisible ou a été émis pour d'autres filtres
+     */
+    public UserPage findPage(String username, String email, Boolean enabled, String cursor, Integer size) {
+        String usernamePrefix = emptyToNull(username);
+        String emailPrefix = emptyToNull(email);
+        String filters = filtersFingerprint(usernamePrefix, emailPrefix, enabled);
+        long afterId = cursor == null || cursor.isEmpty() ? 0 : decodeCursor(cursor, filters);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+
+        // Clé formée des filtres eux-mêmes : deux filtres de même empreinte ne partagent jamais une page
+        PageKey key = new PageKey(usernamePrefix, emailPrefix, enabled, afterId, pageSize);
+        return userPages().get(key, () -> loadPage(usernamePrefix, emailPrefix, enabled, filters, afterId, pageSize));
+    }
+
+    private UserPage loadPage(String usernamePrefix, String emailPrefix, Boolean enabled,
+                              String filters, long afterId, int pageSize) {
+        // Un ID de plus que la taille de page indique s'il existe une page suivante
+        List<Long> ids = userRepository.findIdsAfter(afterId, likePrefix(usernamePrefix), likePrefix(emailPrefix),
+            enabled, Limit.of(pageSize + 1));
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+
+        List<UserSummary> users = pageIds.isEmpty() ? List.of() : summaries(userRepository.findSummaryRowsByIdIn(pageIds));
+        String nextCursor = hasNext ? encodeCursor(pageIds.get(pageIds.size() - 1), filters) : null;
+        return new UserPage(users, nextCursor, pageSize);
+    }
+
+    /**
+     * Regroupe les lignes utilisateur/rôle, triées par ID, en un résumé par utilisateur
+     */
+    private static List<UserSummary> summaries(List<UserRepository.ExportRow> rows) {
+        List<UserSummary> users = new ArrayList<>();
+        UserSummary current = null;
+        List<String> roles = null;
+        for (UserRepository.ExportRow row : rows) {
+            if (current == null || !current.getId().equals(row.getId())) {
+                roles = new ArrayList<>();
+                current = new UserSummary(row.getId(), row.getUsername(), row.getEmail(), row.isEnabled(),
+                    row.isAccountNonExpired(), row.isAccountNonLocked(), row.isCredentialsNonExpired(), roles);
+                users.add(current);
+            }
+            if (row.getRoleName() != null) {
+                roles.add(row.getRoleName());
+            }
+        }
+        return users;
+    }
+
+    private static String encodeCursor(long lastId, String filters) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((lastId + ":" + filters).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor, String filters) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Curseur de pagination illisible");
+        }
+        int separator = decoded.indexOf(':');
+        if (separator < 0 || !decoded.substring(separator + 1).equals(filters)) {
+            throw new InvalidCursorException("Curseur de pagination émis pour d'autres filtres");
+        }
+        try {
+            return Long.parseLong(decoded.substring(0, separator));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Curseur de pagination illisible");
+        }
+    }
+
+    /**
+     * Empreinte stable des filtres (identique sur tous les nœuds et après redémarrage)
+     * Ne sert qu'à lier un curseur à ses filtres, pas à identifier une page en cache
+     */
+    private static String filtersFingerprint(String usernamePrefix, String emailPrefix, Boolean enabled) {
+        CRC32 crc = new CRC32();
+        crc.update((usernamePrefix + '\0' + emailPrefix + '\0' + enabled).getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * @return Le motif LIKE correspondant au préfixe, caractères spéciaux échappés (null si pas de préfixe)
+     */
+    private static String likePrefix(String prefix) {
+        if (prefix == null) {
+            return null;
+        }
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + '%';
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private Cache userPages() {
+        Cache cache = cacheManager.getCache(USER_PAGES_CACHE);
+        if (cache == null) {
+            throw new IllegalStateException("Cache '" + USER_PAGES_CACHE + "' non configuré");
+        }
+        return cache;
+    }
+
+    /**
+     * Clé d'une page dans le cache : filtres normalisés, position et taille
+     */
+    private record PageKey(String usernamePrefix, String emailPrefix, Boolean enabled, long afterId, int pageSize) {
+    }
+}
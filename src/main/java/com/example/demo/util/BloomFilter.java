@@ -0,0 +1,113 @@
+package com.example.demo.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtre de Bloom thread-safe sur des chaînes de caractères
+ * Répond "absent" avec certitude et "peut-être présent" avec un taux de faux positifs borné.
+ * Le hachage parcourt directement les caractères : un test d'appartenance n'alloue aucun objet.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final LongAdder insertions = new LongAdder();
+
+    /**
+     * @param expectedInsertions Nombre d'éléments attendus
+     * @param falsePositiveRate Taux de faux positifs visé à ce volume (ex: 0.01)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * 64;
+        this.hashFunctions = (int) Math.max(1, Math.min(16, Math.round((double) bitSize / n * Math.log(2))));
+    }
+
+    /**
+     * Ajoute un élément au filtre
+     * @param value L'élément à ajouter
+     */
+    public void put(CharSequence value) {
+        long h1 = hash(value);
+        long h2 = Long.rotateLeft(h1, 32) | 1;
+        for (int i = 1; i <= hashFunctions; i++) {
+            long index = indexFor(h1 + i * h2);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+        insertions.increment();
+    }
+
+    /**
+     * Teste si un élément a pu être ajouté au filtre
+     * @param value L'élément à tester
+     * @return false si l'élément est certainement absent, true s'il est peut-être présent
+     */
+    public boolean mightContain(CharSequence value) {
+        long h1 = hash(value);
+        long h2 = Long.rotateLeft(h1, 32) | 1;
+        for (int i = 1; i <= hashFunctions; i++) {
+            long index = indexFor(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Le taux de faux positifs estimé à partir du remplissage actuel du filtre
+     */
+    public double expectedFalsePositiveRate() {
+        long setBits = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            setBits += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) setBits / bitSize, hashFunctions);
+    }
+
+    /**
+     * @return Le nombre d'ajouts effectués depuis la création du filtre
+     */
+    public long insertions() {
+        return insertions.sum();
+    }
+
+    /**
+     * @return La taille du filtre en bits
+     */
+    public long bitSize() {
+        return bitSize;
+    }
+
+    private long indexFor(long combinedHash) {
+        return (combinedHash & Long.MAX_VALUE) % bitSize;
+    }
+
+    /**
+     * Hachage 64 bits (FNV-1a suivi du mélange final de MurmurHash3)
+     */
+    private static long hash(CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e63fe1a53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecteur CSV en flux (RFC 4180), enregistrement par enregistrement
+ * Les champs sont séparés par des virgules ; un champ entre guillemets peut contenir des virgules,
+ * des sauts de ligne et des guillemets doublés. Les fins de ligne \n et \r\n sont acceptées.
+ * Seul l'enregistrement courant est conservé en mémoire.
+ */
+public class CsvReader implements Closeable {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final BufferedReader reader;
+    private final StringBuilder field = new StringBuilder();
+
+    private long line = 1;
+    private long recordLine;
+    private int pending = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * Lit l'enregistrement suivant ; les lignes vides sont ignorées
+     * @return Les champs de l'enregistrement, ou null en fin de flux
+     * @throws IOException En cas d'erreur de lecture ou de guillemet non refermé
+     */
+    public List<String> readRecord() throws IOException {
+        List<String> fields;
+        do {
+            recordLine = line;
+            fields = readFields();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isEmpty());
+        return fields;
+    }
+
+    /**
+     * @return Le numéro de la ligne où commence le dernier enregistrement lu (à partir de 1)
+     */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readFields() throws IOException {
+        int c = next();
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Guillemet non refermé dans l'enregistrement commençant ligne " + recordLine);
+                }
+                if (c == QUOTE) {
+                    int following = next();
+                    if (following == QUOTE) {
+                        field.append(QUOTE);
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c < 0 || c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int following = next();
+                    if (following != '\n') {
+                        pending = following;
+                    }
+                }
+                if (c >= 0) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == QUOTE && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = next();
+        }
+    }
+
+    private int next() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
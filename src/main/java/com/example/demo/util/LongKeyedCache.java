@@ -0,0 +1,347 @@
+package com.example.demo.util;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Cache borné à clés long primitives, en adressage ouvert (sondage linéaire)
+ * Les clés sont stockées dans un long[] : ni Long ni nœud de table ne sont alloués par entrée.
+ * Les lectures sont optimistes (StampedLock) et ne prennent le verrou qu'en cas d'écriture concurrente.
+ * Au-delà de la taille maximale, l'entrée suivante d'un curseur tournant est évincée ;
+ * les entrées expirées sont ignorées en lecture et éliminées lors des écritures.
+ * @param <V> Le type des valeurs (non nulles)
+ */
+public class LongKeyedCache<V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int EVICTION_SCAN = 64;
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final StampedLock lock = new StampedLock();
+
+    private volatile Table table;
+    private int size;
+    private int evictionCursor;
+
+    /**
+     * Incrémenté à chaque retrait ou écriture directe, pour détecter une modification survenue pendant un chargement
+     */
+    private volatile long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize Nombre maximal d'entrées
+     * @param ttlNanos Durée de vie d'une entrée après son écriture, en nanosecondes
+     */
+    public LongKeyedCache(int maximumSize, long ttlNanos) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.ttlNanos = ttlNanos;
+        this.table = new Table(MIN_CAPACITY);
+    }
+
+    /**
+     * @param key La clé
+     * @return La valeur en cache ou null si absente ou expirée
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        Object value = find(table, key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(table, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return (V) value;
+    }
+
+    /**
+     * Écrit une valeur
+     * L'écriture compte comme une invalidation : un chargement commencé avant elle ne peut pas l'écraser
+     * @param key La clé
+     * @param value La valeur (non nulle)
+     */
+    public void put(long key, V value) {
+        long stamp = lock.writeLock();
+        try {
+            invalidations++;
+            insert(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Écrit une valeur chargée, sauf si une invalidation ou une écriture directe ({@link #put})
+     * est survenue depuis le début du chargement (la valeur pourrait alors être antérieure à cette modification)
+     * @param key La clé
+     * @param value La valeur (non nulle)
+     * @param invalidationStamp La valeur de {@link #invalidationStamp()} relevée avant le chargement
+     * @return true si la valeur a été écrite
+     */
+    public boolean putIfNotInvalidatedSince(long key, V value, long invalidationStamp) {
+        long stamp = lock.writeLock();
+        try {
+            if (invalidations != invalidationStamp) {
+                return false;
+            }
+            insert(key, value);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return Le compteur d'invalidations, à relever avant un chargement
+     */
+    public long invalidationStamp() {
+        return invalidations;
+    }
+
+    /**
+     * Retire une entrée
+     * @param key La clé
+     */
+    public void remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            invalidations++;
+            Table current = table;
+            int slot = slotOf(current, key);
+            if (slot >= 0) {
+                removeAt(current, slot);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Vide le cache
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            invalidations++;
+            table = new Table(MIN_CAPACITY);
+            size = 0;
+            evictionCursor = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return Le nombre d'entrées, y compris celles expirées pas encore éliminées
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private Object find(Table current, long key) {
+        long[] keys = current.keys;
+        Object[] values = current.values;
+        int mask = values.length - 1;
+        for (int slot = index(key, mask); ; slot = (slot + 1) & mask) {
+            Object value = values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (keys[slot] == key) {
+                return current.expiresAt[slot] - System.nanoTime() > 0 ? value : null;
+            }
+        }
+    }
+
+    /**
+     * @return L'emplacement de la clé, ou -1 si elle est absente
+     */
+    private static int slotOf(Table current, long key) {
+        int mask = current.values.length - 1;
+        for (int slot = index(key, mask); ; slot = (slot + 1) & mask) {
+            if (current.values[slot] == null) {
+                return -1;
+            }
+            if (current.keys[slot] == key) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(long key, Object value) {
+        puts.increment();
+        Table current = table;
+        int slot = slotOf(current, key);
+        if (slot >= 0) {
+            current.values[slot] = value;
+            current.expiresAt[slot] = System.nanoTime() + ttlNanos;
+            return;
+        }
+        if (size >= maximumSize) {
+            evictOne(current);
+        }
+        if (2 * (size + 1) > current.values.length) {
+            current = resize(current.values.length * 2);
+        }
+        int mask = current.values.length - 1;
+        slot = index(key, mask);
+        while (current.values[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        current.keys[slot] = key;
+        current.expiresAt[slot] = System.nanoTime() + ttlNanos;
+        current.values[slot] = value;
+        size++;
+    }
+
+    /**
+     * Évince une entrée : la première expirée parmi les EVICTION_SCAN emplacements suivant le curseur,
+     * sinon la première entrée rencontrée
+     */
+    private void evictOne(Table current) {
+        int mask = current.values.length - 1;
+        long now = System.nanoTime();
+        int candidate = -1;
+        for (int scanned = 0; scanned <= mask && (candidate < 0 || scanned < EVICTION_SCAN); scanned++) {
+            int slot = (evictionCursor + scanned) & mask;
+            if (current.values[slot] == null) {
+                continue;
+            }
+            if (current.expiresAt[slot] - now <= 0) {
+                candidate = slot;
+                break;
+            }
+            if (candidate < 0) {
+                candidate = slot;
+            }
+        }
+        if (candidate >= 0) {
+            evictionCursor = (candidate + 1) & mask;
+            removeAt(current, candidate);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Retire l'entrée d'un emplacement et recolle les entrées suivantes de la même grappe
+     * (suppression par décalage arrière, sans marqueur de suppression)
+     */
+    private void removeAt(Table current, int slot) {
+        long[] keys = current.keys;
+        Object[] values = current.values;
+        long[] expiresAt = current.expiresAt;
+        int mask = values.length - 1;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (values[next] == null) {
+                break;
+            }
+            int ideal = index(keys[next], mask);
+            // L'entrée peut combler le trou si son emplacement idéal n'est pas entre le trou (exclu) et elle
+            boolean movable = hole <= next ? (ideal <= hole || ideal > next) : (ideal <= hole && ideal > next);
+            if (movable) {
+                keys[hole] = keys[next];
+                expiresAt[hole] = expiresAt[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        values[hole] = null;
+        size--;
+    }
+
+    /**
+     * Reconstruit la table en éliminant les entrées expirées
+     */
+    private Table resize(int capacity) {
+        Table previous = table;
+        Table resized = new Table(capacity);
+        int mask = capacity - 1;
+        long now = System.nanoTime();
+        int kept = 0;
+        for (int i = 0; i < previous.values.length; i++) {
+            Object value = previous.values[i];
+            if (value == null || previous.expiresAt[i] - now <= 0) {
+                continue;
+            }
+            int slot = index(previous.keys[i], mask);
+            while (resized.values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            resized.keys[slot] = previous.keys[i];
+            resized.expiresAt[slot] = previous.expiresAt[i];
+            resized.values[slot] = value;
+            kept++;
+        }
+        size = kept;
+        evictionCursor = 0;
+        table = resized;
+        return resized;
+    }
+
+    /**
+     * Emplacement idéal d'une clé (mélange final de MurmurHash3, les IDs étant séquentiels)
+     */
+    private static int index(long key, int mask) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e63fe1a53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    /**
+     * Tableaux de la table, remplacés ensemble lors d'un redimensionnement
+     * (une lecture optimiste voit toujours des tableaux de même longueur)
+     */
+    private static final class Table {
+        final long[] keys;
+        final long[] expiresAt;
+        final Object[] values;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.expiresAt = new long[capacity];
+            this.values = new Object[capacity];
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.demo.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Stockage clé-valeur d'octets hors du tas Java (ByteBuffer direct)
+ * Les enregistrements sont ajoutés à la suite dans un journal circulaire ; quand la place manque,
+ * les plus anciens sont écrasés (éviction FIFO). L'index est une table à adressage ouvert,
+ * elle aussi hors du tas : le ramasse-miettes ne voit que deux tableaux d'octets par instance.
+ * Format d'un enregistrement : longueur de la clé (int), longueur de la valeur (int),
+ * expiration (long, System.nanoTime), clé, valeur. Une longueur de clé à -1 marque la fin d'un tour.
+ */
+public class OffHeapStore {
+
+    private static final int HEADER_BYTES = 16;
+    private static final int PADDING = -1;
+
+    /**
+     * Emplacement d'index : position logique de l'enregistrement + 1 (long, 0 si libre) et hachage de la clé (int)
+     */
+    private static final int SLOT_BYTES = 12;
+
+    private final ByteBuffer data;
+    private final ByteBuffer index;
+    private final int dataCapacity;
+    private final int slotMask;
+    private final int maximumEntries;
+    private final long ttlNanos;
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Positions logiques (croissantes) du plus ancien enregistrement et de la prochaine écriture
+     */
+    private long head;
+    private long tail;
+    private int size;
+    private volatile long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacityBytes Taille du journal, en octets
+     * @param maximumEntries Nombre maximal d'entrées indexées
+     * @param ttlNanos Durée de vie d'une entrée après son écriture, en nanosecondes
+     */
+    public OffHeapStore(int capacityBytes, int maximumEntries, long ttlNanos) {
+        this.maximumEntries = Math.max(1, maximumEntries);
+        this.ttlNanos = ttlNanos;
+        this.dataCapacity = Math.max(HEADER_BYTES, capacityBytes);
+        this.data = ByteBuffer.allocateDirect(dataCapacity);
+        int slots = Integer.highestOneBit(Math.max(8, this.maximumEntries) * 2 - 1) << 1;
+        this.slotMask = slots - 1;
+        this.index = ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+    }
+
+    /**
+     * @param key La clé
+     * @return Une copie de la valeur, ou null si absente ou expirée
+     */
+    public byte[] get(byte[] key) {
+        int hash = hash(key);
+        byte[] value;
+        long stamp = lock.readLock();
+        try {
+            value = read(key, hash);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Écrit une valeur ; une valeur plus grande que le journal retire simplement la clé
+     * L'écriture compte comme une invalidation : un chargement commencé avant elle ne peut pas l'écraser
+     * @param key La clé
+     * @param value La valeur
+     */
+    public void put(byte[] key, byte[] value) {
+        long stamp = lock.writeLock();
+        try {
+            invalidations++;
+            insert(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Écrit une valeur chargée, sauf si une invalidation ou une écriture directe ({@link #put})
+     * est survenue depuis le début du chargement
+     * @param key La clé
+     * @param value La valeur
+     * @param invalidationStamp La valeur de {@link #invalidationStamp()} relevée avant le chargement
+     * @return true si la valeur a été écrite
+     */
+    public boolean putIfNotInvalidatedSince(byte[] key, byte[] value, long invalidationStamp) {
+        long stamp = lock.writeLock();
+        try {
+            if (invalidations != invalidationStamp) {
+                return false;
+            }
+            return insert(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return Le compteur d'invalidations, à relever avant un chargement
+     */
+    public long invalidationStamp() {
+        return invalidations;
+    }
+
+    /**
+     * Retire une entrée (l'enregistrement reste dans le journal jusqu'à ce qu'il soit écrasé)
+     * @param key La clé
+     */
+    public void remove(byte[] key) {
+        long stamp = lock.writeLock();
+        try {
+            invalidations++;
+            int slot = slotOf(key, hash(key));
+            if (slot >= 0) {
+                removeSlot(slot);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Vide le stockage
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            invalidations++;
+            for (int offset = 0; offset < index.capacity(); offset += SLOT_BYTES) {
+                index.putLong(offset, 0);
+            }
+            head = tail;
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return Le nombre d'entrées indexées, y compris celles expirées
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return Les octets du journal occupés, enregistrements retirés mais pas encore écrasés compris
+     */
+    public long usedBytes() {
+        long stamp = lock.readLock();
+        try {
+            return tail - head;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return La mémoire hors tas réservée (journal et index), en octets
+     */
+    public long reservedBytes() {
+        return (long) data.capacity() + index.capacity();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private byte[] read(byte[] key, int hash) {
+        int slot = slotOf(key, hash);
+        if (slot < 0) {
+            return null;
+        }
+        int position = physical(index.getLong(slot * SLOT_BYTES) - 1);
+        if (data.getLong(position + 8) - System.nanoTime() <= 0) {
+            return null;
+        }
+        byte[] value = new byte[data.getInt(position + 4)];
+        data.get(position + HEADER_BYTES + key.length, value);
+        return value;
+    }
+
+    private boolean insert(byte[] key, byte[] value) {
+        int hash = hash(key);
+        int recordBytes = HEADER_BYTES + key.length + value.length;
+        if (recordBytes > dataCapacity) {
+            int slot = slotOf(key, hash);
+            if (slot >= 0) {
+                removeSlot(slot);
+            }
+            return false;
+        }
+        puts.increment();
+        if (slotOf(key, hash) < 0) {
+            while (size >= maximumEntries && head < tail) {
+                advanceHead();
+            }
+        }
+
+        long position = reserve(recordBytes);
+        int physical = physical(position);
+        data.putInt(physical, key.length);
+        data.putInt(physical + 4, value.length);
+        data.putLong(physical + 8, System.nanoTime() + ttlNanos);
+        data.put(physical + HEADER_BYTES, key);
+        data.put(physical + HEADER_BYTES + key.length, value);
+
+        // Recherche après la réservation, qui a pu écraser l'ancien enregistrement de la clé
+        int slot = slotOf(key, hash);
+        if (slot < 0) {
+            slot = hash & slotMask;
+            while (index.getLong(slot * SLOT_BYTES) != 0) {
+                slot = (slot + 1) & slotMask;
+            }
+            index.putInt(slot * SLOT_BYTES + 8, hash);
+            size++;
+        }
+        index.putLong(slot * SLOT_BYTES, position + 1);
+        return true;
+    }
+
+    /**
+     * Réserve la place d'un enregistrement, en écrasant les plus anciens si nécessaire
+     * Un enregistrement n'est jamais coupé par la fin du journal : il commence alors au tour suivant
+     * @return La position logique de l'enregistrement
+     */
+    private long reserve(int recordBytes) {
+        int remaining = dataCapacity - physical(tail);
+        long start = remaining < recordBytes ? tail + remaining : tail;
+        long end = start + recordBytes;
+        while (end - head > dataCapacity) {
+            if (head >= tail) {
+                head = start;
+                break;
+            }
+            advanceHead();
+        }
+        if (start != tail && remaining >= HEADER_BYTES) {
+            data.putInt(physical(tail), PADDING);
+        }
+        tail = end;
+        return start;
+    }
+
+    /**
+     * Abandonne l'enregistrement le plus ancien, en retirant son entrée d'index si elle le désigne encore
+     */
+    private void advanceHead() {
+        int position = physical(head);
+        int remaining = dataCapacity - position;
+        if (remaining < HEADER_BYTES || data.getInt(position) == PADDING) {
+            head += remaining;
+            return;
+        }
+        int keyLength = data.getInt(position);
+        int valueLength = data.getInt(position + 4);
+        byte[] key = new byte[keyLength];
+        data.get(position + HEADER_BYTES, key);
+        int slot = slotOf(key, hash(key));
+        if (slot >= 0 && index.getLong(slot * SLOT_BYTES) == head + 1) {
+            removeSlot(slot);
+            evictions.increment();
+        }
+        head += HEADER_BYTES + keyLength + valueLength;
+    }
+
+    /**
+     * @return L'emplacement d'index de la clé, ou -1 si elle est absente
+     */
+    private int slotOf(byte[] key, int hash) {
+        for (int slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            long entry = index.getLong(slot * SLOT_BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            if (index.getInt(slot * SLOT_BYTES + 8) == hash && keyEquals(physical(entry - 1), key)) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean keyEquals(int position, byte[] key) {
+        if (data.getInt(position) != key.length) {
+            return false;
+        }
+        int offset = position + HEADER_BYTES;
+        for (int i = 0; i < key.length; i++) {
+            if (data.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Libère un emplacement d'index et recolle les entrées suivantes de la même grappe
+     */
+    private void removeSlot(int slot) {
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & slotMask;
+            long entry = index.getLong(next * SLOT_BYTES);
+            if (entry == 0) {
+                break;
+            }
+            int hash = index.getInt(next * SLOT_BYTES + 8);
+            int ideal = hash & slotMask;
+            boolean movable = hole <= next ? (ideal <= hole || ideal > next) : (ideal <= hole && ideal > next);
+            if (movable) {
+                index.putLong(hole * SLOT_BYTES, entry);
+                index.putInt(hole * SLOT_BYTES + 8, hash);
+                hole = next;
+            }
+        }
+        index.putLong(hole * SLOT_BYTES, 0);
+        size--;
+    }
+
+    private int physical(long position) {
+        return (int) (position % dataCapacity);
+    }
+
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
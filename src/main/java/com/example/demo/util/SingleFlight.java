@@ -0,0 +1,110 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Regroupement des chargements concurrents d'une même clé
+ * Le premier appelant effectue le chargement ; les suivants attendent son résultat (ou son exception)
+ * pendant un délai borné, au-delà duquel ils exécutent leur propre repli.
+ * Métriques : "singleflight.calls" (tags name et result=leader|coalesced|timeout) et "singleflight.wait".
+ * @param <K> Le type des clés
+ * @param <V> Le type des valeurs chargées
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+
+    private final Counter leaderCounter;
+    private final Counter coalescedCounter;
+    private final Counter timeoutCounter;
+    private final Timer waitTimer;
+
+    /**
+     * @param name Le nom utilisé dans le tag des métriques
+     * @param timeout L'attente maximale du résultat d'un autre appelant
+     * @param meterRegistry Le registre des métriques
+     */
+    public SingleFlight(String name, Duration timeout, MeterRegistry meterRegistry) {
+        this.timeoutNanos = timeout.toNanos();
+        this.leaderCounter = callCounter(meterRegistry, name, "leader");
+        this.coalescedCounter = callCounter(meterRegistry, name, "coalesced");
+        this.timeoutCounter = callCounter(meterRegistry, name, "timeout");
+        this.waitTimer = Timer.builder("singleflight.wait")
+            .description("Attente du chargement effectué par un autre appelant")
+            .tag("name", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Charge une valeur, en partageant le chargement déjà en cours pour la même clé
+     * @param key La clé
+     * @param loader Le chargement, exécuté par le premier appelant
+     * @param fallback Le repli, exécuté par un appelant dont l'attente a dépassé le délai
+     * @return La valeur chargée
+     */
+    public V load(K key, Supplier<V> loader, Supplier<V> fallback) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null) {
+            leaderCounter.increment();
+            try {
+                V value = loader.get();
+                flight.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        }
+
+        coalescedCounter.increment();
+        long start = System.nanoTime();
+        try {
+            return existing.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeoutCounter.increment();
+            return fallback.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente du chargement interrompue", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return Le nombre de clés en cours de chargement
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static Counter callCounter(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("singleflight.calls")
+            .description("Chargements par clé : effectués, partagés ou abandonnés après le délai d'attente")
+            .tag("name", name)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
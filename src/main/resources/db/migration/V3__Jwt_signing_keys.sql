@@ -0,0 +1,12 @@
+-- Signing keys table (JWT key ring shared by every node)
+CREATE TABLE jwt_signing_keys (
+                                  kid VARCHAR(64) PRIMARY KEY,
+                                  algorithm VARCHAR(16) NOT NULL,
+                                  private_key VARCHAR(4096) NOT NULL,
+                                  public_key VARCHAR(4096),
+                                  activates_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                                  signs_until TIMESTAMP WITH TIME ZONE NOT NULL,
+                                  expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_jwt_signing_keys_expires_at ON jwt_signing_keys (expires_at);
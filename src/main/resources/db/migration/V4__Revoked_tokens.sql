@@ -0,0 +1,9 @@
+-- Revoked tokens table (denylist of JWT ids until their natural expiry)
+CREATE TABLE revoked_tokens (
+                                jti VARCHAR(64) PRIMARY KEY,
+                                expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                                revoked_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
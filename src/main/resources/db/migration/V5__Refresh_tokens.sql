@@ -0,0 +1,17 @@
+-- Refresh tokens table (opaque rotating tokens, stored as SHA-256 hashes)
+CREATE TABLE refresh_tokens (
+                                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                token_hash VARCHAR(64) NOT NULL,
+                                user_id BIGINT NOT NULL,
+                                family_id VARCHAR(36) NOT NULL,
+                                created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                                expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                                used_at TIMESTAMP WITH TIME ZONE,
+                                revoked BOOLEAN NOT NULL DEFAULT FALSE,
+                                FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE UNIQUE INDEX idx_refresh_tokens_token_hash ON refresh_tokens (token_hash);
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,10 @@
+-- Cache invalidation log (change feed polled by every node to keep local caches coherent)
+CREATE TABLE cache_invalidation_log (
+                                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                        cache_name VARCHAR(100) NOT NULL,
+                                        cache_key VARCHAR(255),
+                                        origin_node VARCHAR(36) NOT NULL,
+                                        created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_cache_invalidation_log_created_at ON cache_invalidation_log (created_at);
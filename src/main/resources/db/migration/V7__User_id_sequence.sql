@@ -0,0 +1,4 @@
+-- Users id sequence (pooled optimizer: one nextval per block of 50 ids, enabling JDBC insert batching)
+-- With the pooled optimizer the sequence value is the upper bound of the next block, hence the extra 50
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM users);
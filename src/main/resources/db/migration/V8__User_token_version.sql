@@ -0,0 +1,2 @@
+-- Token version per user: incremented to invalidate every token already issued (password change, account status...)
+ALTER TABLE users ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,112 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.PermissionRepository;
+import com.example.demo.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthorityRegistryTests {
+
+    private final List<Permission> permissions = new ArrayList<>();
+    private final List<Role> roles = new ArrayList<>();
+    private AuthorityRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        Permission read = new Permission(1L, "USER_READ", null);
+        Permission write = new Permission(2L, "USER_WRITE", null);
+        Permission delete = new Permission(70L, "USER_DELETE", null);
+        permissions.addAll(List.of(read, write, delete));
+        roles.add(new Role(1L, "USER", null, Set.of(read)));
+        roles.add(new Role(3L, "ADMIN", null, Set.of(read, write, delete)));
+
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(permissionRepository.findAll()).thenAnswer(invocation -> List.copyOf(permissions));
+        when(roleRepository.findAllWithPermissions()).thenAnswer(invocation -> List.copyOf(roles));
+        registry = new AuthorityRegistry(permissionRepository, roleRepository);
+        registry.init();
+    }
+
+    @Test
+    void encodesRolesAndPermissionsOfUser() {
+        AuthoritySet authorities = registry.authoritiesOf(user(roles.get(1)));
+
+        assertThat(AuthorityUtils.authorityListToSet(authorities))
+            .containsExactlyInAnyOrder("ROLE_ADMIN", "USER_READ", "USER_WRITE", "USER_DELETE");
+        assertThat(authorities.hasAuthority("USER_DELETE")).isTrue();
+        assertThat(authorities.hasAuthority("ROLE_USER")).isFalse();
+        assertThat(authorities).contains(new SimpleGrantedAuthority("USER_WRITE"));
+        assertThat(authorities).isEqualTo(UserDetailsImpl.build(user(roles.get(1))).getAuthorities());
+    }
+
+    @Test
+    void encodesRolesProjectedWithoutPermissions() {
+        AuthoritySet authorities = registry.authoritiesOf(List.of(new Role(3L, "ADMIN", null, Set.of())));
+
+        assertThat(authorities).isSameAs(registry.authoritiesOf(user(roles.get(1))));
+    }
+
+    @Test
+    void masksRoundTripThroughToken() {
+        AuthoritySet authorities = registry.authoritiesOf(user(roles.get(0)));
+
+        AuthoritySet decoded = registry.decode(authorities.permissionMask(), authorities.roleMask());
+
+        assertThat(decoded).isEqualTo(authorities);
+        assertThat(decoded.hasAuthority("ROLE_USER")).isTrue();
+        assertThat(decoded.hasAuthority("USER_WRITE")).isFalse();
+    }
+
+    @Test
+    void sharesAuthoritySetBetweenUsersWithSameRoles() {
+        AuthoritySet first = registry.authoritiesOf(user(roles.get(1)));
+        AuthoritySet second = registry.authoritiesOf(user(roles.get(1)));
+
+        assertThat(second).isSameAs(first);
+        assertThat(registry.authoritiesOf(user(roles.get(0)))).isNotSameAs(first);
+    }
+
+    @Test
+    void reloadsWhenUserHasUnknownRole() {
+        Role auditor = new Role(4L, "AUDITOR", null, Set.of(permissions.get(0)));
+        roles.add(auditor);
+
+        AuthoritySet authorities = registry.authoritiesOf(user(auditor));
+
+        assertThat(authorities.hasAuthority("ROLE_AUDITOR")).isTrue();
+    }
+
+    @Test
+    void ignoresBitsOfDeletedAuthorities() {
+        AuthoritySet authorities = registry.authoritiesOf(user(roles.get(1)));
+        permissions.remove(2);
+        registry.reload();
+
+        AuthoritySet decoded = registry.decode(authorities.permissionMask(), authorities.roleMask());
+
+        assertThat(AuthorityUtils.authorityListToSet(decoded))
+            .containsExactlyInAnyOrder("ROLE_ADMIN", "USER_READ", "USER_WRITE");
+    }
+
+    private static User user(Role... roles) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setRoles(Set.of(roles));
+        return user;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.PermissionRepository;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthoritySetExpressionHandlerTests {
+
+    private UserDetailsImpl userDetails;
+    private JwtAuthorizationFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Permission read = new Permission(1L, "USER_READ", null);
+        Permission write = new Permission(2L, "USER_WRITE", null);
+        Role admin = new Role(3L, "ADMIN", null, Set.of(read, write));
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(permissionRepository.findAll()).thenReturn(List.of(read, write));
+        when(roleRepository.findAllWithPermissions()).thenReturn(List.of(admin));
+        AuthorityRegistry authorityRegistry = new AuthorityRegistry(permissionRepository, roleRepository);
+        authorityRegistry.init();
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setRoles(Set.of(admin));
+        userDetails = UserDetailsImpl.build(user, authorityRegistry);
+
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn("alice");
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        when(jwtUtils.verifyJwtToken("token")).thenReturn(Optional.of(claims));
+        UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(userDetails);
+        filter = new JwtAuthorizationFilter(jwtUtils, userDetailsService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticationFromFilterKeepsAuthoritySetForExpressions() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getAuthorities()).isSameAs(userDetails.getAuthorities());
+
+        MethodSecurityExpressionOperations root = root(authentication);
+        assertThat(root).isInstanceOf(AuthoritySetExpressionHandler.AuthoritySetExpressionRoot.class);
+        assertThat(root.hasAuthority("USER_WRITE")).isTrue();
+        assertThat(root.hasAnyAuthority("USER_DELETE", "USER_READ")).isTrue();
+        assertThat(root.hasAuthority("USER_DELETE")).isFalse();
+        assertThat(root.hasRole("ADMIN")).isTrue();
+        assertThat(root.hasAnyRole("USER")).isFalse();
+    }
+
+    private static MethodSecurityExpressionOperations root(Authentication authentication) throws Exception {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        when(invocation.getThis()).thenReturn(new Object());
+        return (MethodSecurityExpressionOperations) new AuthoritySetExpressionHandler()
+            .createEvaluationContext(() -> authentication, invocation)
+            .getRootObject().getValue();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.security;
+
+import com.example.demo.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserExistenceFilterTests {
+
+    private final List<UserRepository.NaturalKeys> users = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserExistenceFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        users.add(keys("alice", "alice@example.com"));
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.streamNaturalKeys()).thenAnswer(invocation -> List.copyOf(users).stream());
+        filter = new UserExistenceFilter(userRepository, mock(PlatformTransactionManager.class), meterRegistry);
+        ReflectionTestUtils.setField(filter, "capacity", 1000L);
+        filter.init();
+    }
+
+    @Test
+    void answersFromFilterAndRegistersGaugesAfterBuild() {
+        assertThat(filter.mightExistByUsername("alice")).isTrue();
+        assertThat(filter.mightExistByUsername("bob")).isFalse();
+        assertThat(meterRegistry.get("users.bloom.fpp").tag("field", "username").gauge().value()).isGreaterThan(0);
+    }
+
+    @Test
+    void tracksKeysInvalidatedByOtherNodes() {
+        filter.onRemoteInvalidation("userByUsername", "bob");
+        filter.onRemoteInvalidation("userByEmail", "bob@example.com");
+
+        assertThat(filter.mightExistByUsername("bob")).isTrue();
+        assertThat(filter.mightExistByEmail("bob@example.com")).isTrue();
+    }
+
+    @Test
+    void distrustsFiltersUntilRebuiltAfterRemoteClear() {
+        users.add(keys("bob", "bob@example.com"));
+
+        filter.onRemoteInvalidation("userByUsername", null);
+
+        assertThat(filter.mightExistByUsername("carol")).isTrue();
+        filter.rebuildIfStale();
+        assertThat(filter.mightExistByUsername("carol")).isFalse();
+        assertThat(filter.mightExistByUsername("bob")).isTrue();
+    }
+
+    @Test
+    void distrustsFiltersUntilRebuiltAfterMissedInvalidations() {
+        filter.onRemoteInvalidationsMissed();
+
+        assertThat(filter.mightExistByEmail("carol@example.com")).isTrue();
+        filter.rebuildIfStale();
+        assertThat(filter.mightExistByEmail("carol@example.com")).isFalse();
+    }
+
+    private static UserRepository.NaturalKeys keys(String username, String email) {
+        return new UserRepository.NaturalKeys() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.security;
+
+import com.example.demo.aop.TransactionalCacheInvalidator;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserTokenVersionRegistryTests {
+
+    private final Map<Long, Long> stored = new HashMap<>();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private UserTokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        stored.put(1L, 0L);
+        when(userRepository.findTokenVersion(anyLong())).thenAnswer(invocation -> stored.get(invocation.<Long>getArgument(0)));
+        when(userRepository.incrementTokenVersion(anyLong())).thenAnswer(invocation ->
+            stored.computeIfPresent(invocation.<Long>getArgument(0), (id, version) -> version + 1) == null ? 0 : 1);
+        registry = new UserTokenVersionRegistry(userRepository, mock(TransactionalCacheInvalidator.class));
+        ReflectionTestUtils.setField(registry, "cacheSize", 100);
+        ReflectionTestUtils.setField(registry, "cacheTtlMs", 600_000L);
+        registry.init();
+    }
+
+    @Test
+    void readsVersionOnceThenServesItFromCache() {
+        assertThat(registry.isCurrent(1L, 0)).isTrue();
+        assertThat(registry.isCurrent(1L, 0)).isTrue();
+
+        verify(userRepository, times(1)).findTokenVersion(1L);
+    }
+
+    @Test
+    void invalidationMakesOlderTokensObsolete() {
+        registry.currentVersion(1L);
+
+        registry.invalidateTokens(1L);
+
+        assertThat(registry.isCurrent(1L, 0)).isFalse();
+        assertThat(registry.isCurrent(1L, registry.currentVersion(1L))).isTrue();
+    }
+
+    @Test
+    void remoteInvalidationReloadsVersion() {
+        registry.currentVersion(1L);
+        stored.put(1L, 3L);
+
+        registry.onRemoteInvalidation(UserTokenVersionRegistry.INVALIDATION_CHANNEL, "1");
+
+        assertThat(registry.currentVersion(1L)).isEqualTo(3L);
+    }
+
+    @Test
+    void rejectsTokensOfDeletedUser() {
+        assertThat(registry.isCurrent(2L, 0)).isFalse();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.UserImportReport;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.AuthorityRegistry;
+import com.example.demo.security.UserExistenceFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTests {
+
+    /**
+     * Hachage sans coût : seul le déroulement de l'import est vérifié
+     */
+    private static final PasswordEncoder PLAIN_TEXT = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    };
+
+    private final List<List<String>> insertedBatches = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private UserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            List<String> usernames = new ArrayList<>();
+            for (User user : users) {
+                // Une entité portant déjà un ID serait fusionnée au lieu d'être insérée
+                assertThat(user.getId()).isNull();
+                user.setId(sequence.incrementAndGet());
+                usernames.add(user.getUsername());
+            }
+            if (usernames.contains("bob")) {
+                // Inscription concurrente de bob, validée après la vérification d'unicité du lot
+                throw new DataIntegrityViolationException("users_username_key");
+            }
+            insertedBatches.add(usernames);
+            return users;
+        });
+
+        AuthorityRegistry authorityRegistry = mock(AuthorityRegistry.class);
+        when(authorityRegistry.findRole("USER")).thenReturn(Optional.of(new Role(1L, "USER", null, Set.of())));
+
+        service = new UserImportService(userRepository, mock(UserExistenceFilter.class), authorityRegistry,
+            PLAIN_TEXT, mock(PlatformTransactionManager.class), new ObjectMapper(),
+            validatorFactory.getValidator(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+        ReflectionTestUtils.setField(service, "hashingThreads", 2);
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 10);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        validatorFactory.close();
+    }
+
+    @Test
+    void insertsValidRowsInOneBatchAndReportsInvalidOnes() {
+        UserImportReport report = importCsv("username,email,password\n"
+            + "alice,alice@example.com,secret1\n"
+            + "dave,not-an-email,123\n"
+            + "carol,carol@example.com,secret3\n");
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(3);
+            assertThat(error.getUsername()).isEqualTo("dave");
+            assertThat(error.getMessage())
+                .contains("L'email doit être valide")
+                .contains("Le mot de passe doit contenir entre 6 et 100 caractères");
+        });
+        assertThat(insertedBatches).containsExactly(List.of("alice", "carol"));
+    }
+
+    @Test
+    void retriesConflictingBatchRowByRowWithFreshIds() {
+        UserImportReport report = importCsv("username,email,password\n"
+            + "alice,alice@example.com,secret1\n"
+            + "bob,bob@example.com,secret2\n"
+            + "carol,carol@example.com,secret3\n");
+
+        assertThat(report.getRowsRead()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(3);
+            assertThat(error.getUsername()).isEqualTo("bob");
+        });
+        assertThat(insertedBatches).containsExactly(List.of("alice"), List.of("carol"));
+    }
+
+    private UserImportReport importCsv(String csv) {
+        return service.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+            UserImportService.TEXT_CSV);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTests {
+
+    @Test
+    void readsRecordsAndSkipsEmptyLines() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("username,email\r\nalice,alice@example.com\n\nbob,\n"));
+
+        assertThat(reader.readRecord()).containsExactly("username", "email");
+        assertThat(reader.readRecord()).containsExactly("alice", "alice@example.com");
+        assertThat(reader.recordLine()).isEqualTo(2);
+        assertThat(reader.readRecord()).containsExactly("bob", "");
+        assertThat(reader.recordLine()).isEqualTo(4);
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void readsQuotedFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\"a,b\",\"say \"\"hi\"\"\",\"multi\nline\"\nnext"));
+
+        assertThat(reader.readRecord()).containsExactly("a,b", "say \"hi\"", "multi\nline");
+        assertThat(reader.readRecord()).containsExactly("next");
+        assertThat(reader.recordLine()).isEqualTo(3);
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() {
+        CsvReader reader = new CsvReader(new StringReader("\"open,field\n"));
+
+        assertThatThrownBy(reader::readRecord).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongKeyedCacheTests {
+
+    private static final long TTL = Duration.ofMinutes(1).toNanos();
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemovals() {
+        LongKeyedCache<String> cache = new LongKeyedCache<>(10_000, TTL);
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                cache.remove(key);
+                expected.remove(key);
+            } else {
+                cache.put(key, "v" + i);
+                expected.put(key, "v" + i);
+            }
+        }
+
+        for (long key = 0; key < 2_000; key++) {
+            assertThat(cache.get(key)).isEqualTo(expected.get(key));
+        }
+        assertThat(cache.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void evictsBeyondMaximumSize() {
+        LongKeyedCache<String> cache = new LongKeyedCache<>(100, TTL);
+
+        for (long key = 1; key <= 1_000; key++) {
+            cache.put(key, "user" + key);
+        }
+
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.evictionCount()).isEqualTo(900);
+        assertThat(cache.get(1_000)).isEqualTo("user1000");
+    }
+
+    @Test
+    void skipsLoadedValueAfterConcurrentInvalidation() {
+        LongKeyedCache<String> cache = new LongKeyedCache<>(100, TTL);
+        long stamp = cache.invalidationStamp();
+
+        cache.remove(1);
+
+        assertThat(cache.putIfNotInvalidatedSince(1, "stale", stamp)).isFalse();
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.putIfNotInvalidatedSince(1, "fresh", cache.invalidationStamp())).isTrue();
+        assertThat(cache.get(1)).isEqualTo("fresh");
+    }
+
+    @Test
+    void loadStartedBeforeWriteThroughDoesNotOverwriteIt() {
+        LongKeyedCache<String> cache = new LongKeyedCache<>(100, TTL);
+        // Le chargement lit l'ancienne ligne, puis l'enregistrement est validé et écrit dans le cache
+        long stamp = cache.invalidationStamp();
+        cache.put(1, "saved");
+
+        assertThat(cache.putIfNotInvalidatedSince(1, "pre-commit", stamp)).isFalse();
+        assertThat(cache.get(1)).isEqualTo("saved");
+    }
+}
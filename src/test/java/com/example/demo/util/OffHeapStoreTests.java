@@ -0,0 +1,92 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapStoreTests {
+
+    private static final long TTL = Duration.ofMinutes(1).toNanos();
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemovals() {
+        OffHeapStore store = new OffHeapStore(1 << 20, 10_000, TTL);
+        Map<String, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            String key = "user" + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                store.remove(bytes(key));
+                expected.remove(key);
+            } else {
+                String value = "v" + i + "x".repeat(random.nextInt(40));
+                store.put(bytes(key), bytes(value));
+                expected.put(key, value);
+            }
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            String key = "user" + i;
+            byte[] value = store.get(bytes(key));
+            assertThat(value == null ? null : new String(value, StandardCharsets.UTF_8)).isEqualTo(expected.get(key));
+        }
+        assertThat(store.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void overwritesOldestRecordsWhenFull() {
+        OffHeapStore store = new OffHeapStore(4_096, 10_000, TTL);
+
+        for (int i = 0; i < 1_000; i++) {
+            store.put(bytes("user" + i), bytes("value" + i));
+        }
+
+        assertThat(store.get(bytes("user0"))).isNull();
+        assertThat(store.get(bytes("user999"))).isEqualTo(bytes("value999"));
+        assertThat(store.usedBytes()).isLessThanOrEqualTo(4_096);
+        assertThat(store.size() + store.evictionCount()).isEqualTo(1_000);
+    }
+
+    @Test
+    void neverReturnsStaleValueAcrossWrapArounds() {
+        OffHeapStore store = new OffHeapStore(2_000, 100, TTL);
+        Map<String, String> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            String key = "user" + random.nextInt(300);
+            String value = "v" + i + "x".repeat(random.nextInt(100));
+            store.put(bytes(key), bytes(value));
+            expected.put(key, value);
+
+            String probe = "user" + random.nextInt(300);
+            byte[] found = store.get(bytes(probe));
+            if (found != null) {
+                assertThat(new String(found, StandardCharsets.UTF_8)).isEqualTo(expected.get(probe));
+            }
+        }
+        assertThat(store.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void loadStartedBeforeWriteThroughDoesNotOverwriteIt() {
+        OffHeapStore store = new OffHeapStore(4_096, 100, TTL);
+        // Le chargement lit l'ancien mot de passe, puis le changement est validé et écrit dans le cache
+        long stamp = store.invalidationStamp();
+        store.put(bytes("alice"), bytes("new-hash"));
+
+        assertThat(store.putIfNotInvalidatedSince(bytes("alice"), bytes("old-hash"), stamp)).isFalse();
+        assertThat(store.get(bytes("alice"))).isEqualTo(bytes("new-hash"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}